@@ -0,0 +1,33 @@
+package com.dailyroutine.config;
+
+import com.dailyroutine.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Principal stored in the security context for JWT-authenticated requests. Carries what
+ * services need about the caller so they never have to look the user up again.
+ */
+public record AuthenticatedUser(Long id, String username, User.Role role) implements Principal {
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public boolean isAdmin() {
+        return role == User.Role.ADMIN;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
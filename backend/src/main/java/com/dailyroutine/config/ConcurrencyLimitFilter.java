@@ -0,0 +1,97 @@
+package com.dailyroutine.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of API requests in flight when requests run on virtual threads.
+ *
+ * <p>With platform threads Tomcat's worker pool bounds concurrency; with virtual threads every
+ * accepted connection gets its own thread, and thousands of them would otherwise queue inside
+ * the connection pool until its timeout fires. Each tenant has its own limit, defaulting to a
+ * small multiple of its own pool size, so most admitted requests get a connection promptly and
+ * a busy school cannot take the slots of another. Callers beyond it wait briefly here before
+ * being turned away with 503. Runs after the security chain, once {@link TenantFilter} and
+ * {@link JwtRequestFilter} have settled which tenant the request belongs to.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final Tenants tenants;
+    private final Map<String, Semaphore> permits = new HashMap<>();
+    private final Map<String, Integer> maxInFlight = new HashMap<>();
+    private final long queueTimeoutMillis;
+
+    public ConcurrencyLimitFilter(Tenants tenants,
+                                  @Value("${concurrency.max-in-flight:0}") int maxInFlight,
+                                  @Value("${concurrency.per-connection:2}") int perConnection,
+                                  @Value("${concurrency.queue-timeout:2s}") Duration queueTimeout) {
+        this.tenants = tenants;
+        for (String tenant : tenants.ids()) {
+            int limit = maxInFlight > 0 ? maxInFlight : tenants.poolSize(tenant) * perConnection;
+            this.maxInFlight.put(tenant, limit);
+            this.permits.put(tenant, new Semaphore(limit, true));
+        }
+        this.queueTimeoutMillis = queueTimeout.toMillis();
+        log.info("Virtual threads enabled; admitting at most {} concurrent API requests per tenant", this.maxInFlight);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        Semaphore permits = this.permits.get(tenants.current());
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\":\"Server busy, please retry\"}");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getMaxInFlight(String tenant) {
+        return maxInFlight.get(tenant);
+    }
+
+    public int getInFlight(String tenant) {
+        return maxInFlight.get(tenant) - permits.get(tenant).availablePermits();
+    }
+}
@@ -0,0 +1,14 @@
+package com.dailyroutine.config;
+
+import java.time.Instant;
+
+/**
+ * Claims of a token whose signature has already been verified. {@code tenant} is null for
+ * tokens issued before tenants existed, which belong to the default tenant.
+ */
+public record JwtPrincipal(String subject, String role, String tenant, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,51 @@
+package com.dailyroutine.config;
+
+import java.util.function.Supplier;
+
+/**
+ * The tenant the current thread works for. Set per request by {@link TenantFilter} and
+ * {@link JwtRequestFilter}; background work sets it explicitly around each tenant's share.
+ * Unset means the default tenant.
+ */
+public final class TenantContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /** The tenant id, or null when none has been set on this thread. */
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    public static void set(String tenant) {
+        CURRENT.set(tenant);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /** Runs {@code work} for {@code tenant}, then restores whatever was set before. */
+    public static <T> T call(String tenant, Supplier<T> work) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenant);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void run(String tenant, Runnable work) {
+        call(tenant, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
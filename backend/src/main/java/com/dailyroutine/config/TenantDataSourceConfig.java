@@ -0,0 +1,87 @@
+package com.dailyroutine.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One Hikari pool per tenant behind a single routing {@link DataSource}, so JPA, Spring Data
+ * and {@code JdbcTemplate} all follow {@link TenantContext} without knowing about tenants.
+ */
+@Configuration
+@EnableConfigurationProperties(TenantProperties.class)
+public class TenantDataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantDataSourceConfig.class);
+
+    @Bean
+    public Tenants tenants(TenantProperties properties, DataSourceProperties defaults,
+                           Environment environment, MeterRegistry meterRegistry) {
+        Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+        pools.put(properties.defaultTenant(), pool(properties.defaultTenant(), defaults,
+            defaults.determineUrl(), defaults.determineUsername(), defaults.determinePassword(), null,
+            environment, meterRegistry));
+        properties.databases().forEach((tenant, database) -> {
+            if (pools.containsKey(tenant)) {
+                throw new IllegalStateException("Tenant " + tenant + " is the default tenant; it uses spring.datasource");
+            }
+            pools.put(tenant, pool(tenant, defaults, database.url(),
+                database.username() != null ? database.username() : defaults.determineUsername(),
+                database.password() != null ? database.password() : defaults.determinePassword(),
+                database.maximumPoolSize(), environment, meterRegistry));
+        });
+        log.info("Serving {} tenant(s): {}", pools.size(), pools.keySet());
+        return new Tenants(properties.defaultTenant(), pools);
+    }
+
+    @Bean
+    public DataSource dataSource(Tenants tenants) {
+        return new TenantRoutingDataSource(tenants);
+    }
+
+    // Spring Boot migrates the routing data source, which only reaches the default tenant
+    @Bean
+    public FlywayMigrationStrategy tenantMigrations(Tenants tenants) {
+        return flyway -> tenants.dataSources().forEach((tenant, dataSource) -> {
+            log.info("Migrating tenant {}", tenant);
+            Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .dataSource(dataSource)
+                .load()
+                .migrate();
+        });
+    }
+
+    // Starts from spring.datasource.hikari so every pool shares the same tuning
+    private static HikariDataSource pool(String tenant, DataSourceProperties defaults, String url,
+                                         String username, String password, Integer maximumPoolSize,
+                                         Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setDriverClassName(defaults.determineDriverClassName());
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        if (maximumPoolSize != null) {
+            pool.setMaximumPoolSize(maximumPoolSize);
+        }
+        pool.setPoolName("tenant-" + tenant);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
@@ -0,0 +1,21 @@
+package com.dailyroutine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Schools served by this deployment. The default tenant uses {@code spring.datasource}; every
+ * other one names its own database under {@code tenants.databases.<id>}.
+ */
+@ConfigurationProperties("tenants")
+public record TenantProperties(String defaultTenant, Map<String, Database> databases) {
+
+    public TenantProperties {
+        defaultTenant = defaultTenant == null || defaultTenant.isBlank() ? "default" : defaultTenant;
+        databases = databases == null ? Map.of() : databases;
+    }
+
+    // Pool size falls back to spring.datasource.hikari.maximum-pool-size
+    public record Database(String url, String username, String password, Integer maximumPoolSize) {}
+}
@@ -0,0 +1,24 @@
+package com.dailyroutine.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+
+/**
+ * Hands out connections from the pool of the tenant in {@link TenantContext}. A transaction
+ * keeps the connection it started with, so the tenant must be set before it begins.
+ */
+class TenantRoutingDataSource extends AbstractRoutingDataSource {
+
+    TenantRoutingDataSource(Tenants tenants) {
+        setTargetDataSources(new HashMap<>(tenants.dataSources()));
+        setDefaultTargetDataSource(tenants.dataSources().get(tenants.defaultTenant()));
+        // An unknown tenant is a bug, not a reason to read the default tenant's data
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TenantContext.get();
+    }
+}
@@ -0,0 +1,56 @@
+package com.dailyroutine.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The tenants this deployment serves, each with its own database and connection pool, so a
+ * school that exhausts its pool only queues its own requests. In-memory state that mirrors
+ * the database is kept per tenant as well, keyed by {@link #current()}.
+ */
+public class Tenants implements AutoCloseable {
+
+    private final String defaultTenant;
+    // Default tenant first
+    private final Map<String, HikariDataSource> pools;
+
+    Tenants(String defaultTenant, Map<String, HikariDataSource> pools) {
+        this.defaultTenant = defaultTenant;
+        this.pools = Collections.unmodifiableMap(pools);
+    }
+
+    public String defaultTenant() {
+        return defaultTenant;
+    }
+
+    public List<String> ids() {
+        return List.copyOf(pools.keySet());
+    }
+
+    public boolean exists(String tenant) {
+        return pools.containsKey(tenant);
+    }
+
+    /** The tenant the current thread works for; the default tenant when none is set. */
+    public String current() {
+        String tenant = TenantContext.get();
+        return tenant != null ? tenant : defaultTenant;
+    }
+
+    public int poolSize(String tenant) {
+        return pools.get(tenant).getMaximumPoolSize();
+    }
+
+    Map<String, DataSource> dataSources() {
+        return Collections.unmodifiableMap(pools);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,96 @@
+package com.dailyroutine.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.time.LocalTime;
+
+/**
+ * Binary encodings for clients on slow links. A request with {@code Accept: application/cbor}
+ * or {@code application/x-jackson-smile} gets the same body as JSON, minus null fields and with
+ * times of day as minutes since midnight ({@code 07:30} is {@code 450}). Request bodies in
+ * either format are read the same way. JSON stays the default and is unchanged.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    // Boot's builder is a prototype, so each converter starts from the application's own settings
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(compact(builder, new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(compact(builder, new SmileFactory()).build());
+    }
+
+    /**
+     * Applies the compact settings to {@code builder} on top of whatever it already has.
+     * Public so the serialization benchmark measures exactly what the API sends.
+     */
+    public static Jackson2ObjectMapperBuilder compact(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+        return builder
+            .factory(factory)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .serializerByType(LocalTime.class, new MinuteOfDaySerializer())
+            .deserializerByType(LocalTime.class, new MinuteOfDayDeserializer());
+    }
+
+    // Conditional GETs share one ETag across encodings, so caches must key on Accept as well
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+
+    static class MinuteOfDaySerializer extends JsonSerializer<LocalTime> {
+        @Override
+        public void serialize(LocalTime value, JsonGenerator generator, SerializerProvider serializers)
+                throws IOException {
+            generator.writeNumber(value.getHour() * 60 + value.getMinute());
+        }
+    }
+
+    // Also takes the ISO string JSON uses, so a client can switch formats without changing its models
+    static class MinuteOfDayDeserializer extends JsonDeserializer<LocalTime> {
+        @Override
+        public LocalTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                int minutes = parser.getIntValue();
+                if (minutes < 0 || minutes >= 24 * 60) {
+                    return (LocalTime) context.handleWeirdNumberValue(LocalTime.class, minutes,
+                        "minute of day must be between 0 and 1439");
+                }
+                return LocalTime.of(minutes / 60, minutes % 60);
+            }
+            return LocalTime.parse(parser.getValueAsString());
+        }
+    }
+}
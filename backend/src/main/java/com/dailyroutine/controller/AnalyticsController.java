@@ -0,0 +1,55 @@
+package com.dailyroutine.controller;
+
+import com.dailyroutine.dto.CohortStats;
+import com.dailyroutine.dto.FoodStats;
+import com.dailyroutine.entity.DailyRoutine;
+import com.dailyroutine.service.AnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:3000")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @GetMapping("/cohorts")
+    public ResponseEntity<?> getCohortStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") CohortStats.Bucket bucket,
+            @RequestParam(required = false) String classGrade) {
+        try {
+            List<CohortStats> stats = analyticsService.getCohortStats(from, to, bucket, classGrade);
+            return ResponseEntity.ok(stats);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/foods")
+    public ResponseEntity<?> getFoodStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String classGrade,
+            @RequestParam(required = false) DailyRoutine.Meal meal,
+            @RequestParam(defaultValue = "ITEM") FoodStats.GroupBy groupBy,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<FoodStats> stats = analyticsService.getFoodStats(from, to, classGrade, meal, groupBy, limit);
+            return ResponseEntity.ok(stats);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
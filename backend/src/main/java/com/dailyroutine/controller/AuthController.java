@@ -1,13 +1,17 @@
 package com.dailyroutine.controller;
 
+import com.dailyroutine.config.Tenants;
 import com.dailyroutine.dto.LoginRequest;
 import com.dailyroutine.entity.User;
 import com.dailyroutine.service.AuthService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -15,9 +19,17 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
+    private final Tenants tenants;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, Tenants tenants) {
         this.authService = authService;
+        this.tenants = tenants;
+    }
+
+    // Lets the login page offer a school picker; requests without X-Tenant-ID go to the default
+    @GetMapping("/schools")
+    public ResponseEntity<?> schools() {
+        return ResponseEntity.ok(Map.of("default", tenants.defaultTenant(), "schools", tenants.ids()));
     }
 
     @PostMapping("/login")
@@ -25,11 +37,35 @@ public class AuthController {
         try {
             Map<String, Object> response = authService.login(loginRequest.getUsername(), loginRequest.getPassword());
             return ResponseEntity.ok(response);
+        } catch (RejectedExecutionException e) {
+            return busy();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid credentials"));
         }
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> request) {
+        String refreshToken = request.get("refreshToken");
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "refreshToken is required"));
+        }
+        try {
+            return ResponseEntity.ok(authService.refresh(refreshToken));
+        } catch (BadCredentialsException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody Map<String, String> request) {
+        String refreshToken = request.get("refreshToken");
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            authService.logout(refreshToken);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody Map<String, String> request) {
         try {
@@ -40,8 +76,17 @@ public class AuthController {
                 User.Role.valueOf(request.get("role"))
             );
             return ResponseEntity.ok(Map.of("message", "User registered successfully", "userId", user.getId()));
+        } catch (RejectedExecutionException e) {
+            return busy();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+
+    // Password hashing is saturated; the client should back off rather than count this as a failed login
+    private static ResponseEntity<?> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header("Retry-After", "1")
+            .body(Map.of("error", "Server busy, please retry"));
+    }
 }
\ No newline at end of file
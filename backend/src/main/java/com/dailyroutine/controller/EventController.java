@@ -0,0 +1,34 @@
+package com.dailyroutine.controller;
+
+import com.dailyroutine.service.CurrentUserService;
+import com.dailyroutine.service.RoutineEventHub;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "http://localhost:3000")
+public class EventController {
+
+    private final RoutineEventHub eventHub;
+    private final CurrentUserService currentUserService;
+
+    public EventController(RoutineEventHub eventHub, CurrentUserService currentUserService) {
+        this.eventHub = eventHub;
+        this.currentUserService = currentUserService;
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        try {
+            SseEmitter emitter = eventHub.subscribe(currentUserService.get(), lastEventId);
+            return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+        } catch (IllegalStateException e) {
+            // The stream only speaks text/event-stream, so a full hub is signalled by status alone
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.dailyroutine.controller;
+
+import com.dailyroutine.dto.FoodItemView;
+import com.dailyroutine.entity.FoodItem;
+import com.dailyroutine.service.FoodCatalog;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/foods")
+@CrossOrigin(origins = "http://localhost:3000")
+public class FoodItemController {
+
+    private final FoodCatalog foodCatalog;
+
+    public FoodItemController(FoodCatalog foodCatalog) {
+        this.foodCatalog = foodCatalog;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<FoodItemView>> getFoodItems() {
+        return ResponseEntity.ok(foodCatalog.getItems());
+    }
+
+    // Body {"category": "GRAIN"}; a null or missing category clears it
+    @PutMapping("/{id}")
+    public ResponseEntity<?> setCategory(@PathVariable Long id, @RequestBody Map<String, String> request) {
+        String category = request.get("category");
+        try {
+            FoodItemView item = foodCatalog.setCategory(id, category != null ? FoodItem.Category.valueOf(category) : null);
+            return ResponseEntity.ok(item);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown category: " + category));
+        }
+    }
+}
@@ -1,14 +1,32 @@
 package com.dailyroutine.controller;
 
+import com.dailyroutine.config.TenantContext;
+import com.dailyroutine.config.Tenants;
+import com.dailyroutine.dto.CursorPage;
 import com.dailyroutine.dto.FeedbackRequest;
+import com.dailyroutine.dto.RoutineBatchResult;
 import com.dailyroutine.dto.RoutineRequest;
+import com.dailyroutine.dto.RoutineView;
+import com.dailyroutine.dto.VersionStamp;
 import com.dailyroutine.entity.DailyRoutine;
+import com.dailyroutine.service.RoutineExportService;
 import com.dailyroutine.service.RoutineService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -19,32 +37,149 @@ import java.util.Map;
 public class RoutineController {
 
     private final RoutineService routineService;
+    private final RoutineExportService routineExportService;
+    private final ObjectMapper objectMapper;
+    private final Tenants tenants;
 
-    public RoutineController(RoutineService routineService) {
+    public RoutineController(RoutineService routineService, RoutineExportService routineExportService,
+                             ObjectMapper objectMapper, Tenants tenants) {
         this.routineService = routineService;
+        this.routineExportService = routineExportService;
+        this.objectMapper = objectMapper;
+        this.tenants = tenants;
     }
 
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<List<DailyRoutine>> getRoutinesByStudent(@PathVariable Long studentId) {
-        return ResponseEntity.ok(routineService.getRoutinesByStudent(studentId));
+    public ResponseEntity<?> getRoutinesByStudent(
+            @PathVariable Long studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        VersionStamp version = routineService.getStudentHistoryVersion(studentId);
+        if (webRequest.checkNotModified(version.etag("student" + studentId), version.lastModifiedMillis())) {
+            return null;
+        }
+        try {
+            CursorPage<RoutineView> page = routineService.getRoutinesByStudent(studentId, from, to, cursor, limit);
+            return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/date/{date}")
-    public ResponseEntity<List<DailyRoutine>> getRoutinesByDate(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        return ResponseEntity.ok(routineService.getRoutinesByDate(date));
+    public ResponseEntity<?> getRoutinesByDate(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String classGrade,
+            @RequestParam(required = false) DailyRoutine.Behavior behavior,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        VersionStamp version = routineService.getDateVersion(date);
+        if (webRequest.checkNotModified(version.etag("date" + date), version.lastModifiedMillis())) {
+            return null;
+        }
+        try {
+            CursorPage<RoutineView> page = routineService.getRoutinesByDate(date, classGrade, behavior, cursor, limit);
+            return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchRoutines(
+            @RequestParam String q,
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) String classGrade,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) throws IOException {
+        try {
+            CursorPage<RoutineView> page = routineService.searchRoutines(q, studentId, classGrade, from, to, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            // The index is rebuilt in the background after startup
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRoutines(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String classGrade,
+            @RequestParam(defaultValue = "CSV") RoutineExportService.Format format) {
+        try {
+            routineExportService.validateRange(from, to);
+        } catch (IllegalArgumentException e) {
+            // Streaming endpoints are only dispatched as such when declared so; the error goes out the same way
+            Map<String, String> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, error));
+        }
+        // Written on an async thread after the headers are sent; see spring.mvc.async.request-timeout
+        String tenant = tenants.current();
+        StreamingResponseBody body = out -> {
+            TenantContext.set(tenant);
+            try {
+                routineExportService.export(from, to, classGrade, format, out);
+            } finally {
+                TenantContext.clear();
+            }
+        };
+        String filename = "routines-" + from + "-to-" + to + "." + format.getExtension();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(body);
     }
 
     @PostMapping
-    public ResponseEntity<DailyRoutine> saveRoutine(@Valid @RequestBody RoutineRequest request) {
-        DailyRoutine routine = routineService.saveRoutine(request);
-        return ResponseEntity.ok(routine);
+    public ResponseEntity<?> saveRoutine(@Valid @RequestBody RoutineRequest request) {
+        try {
+            RoutineView routine = routineService.saveRoutine(request);
+            return ResponseEntity.ok(routine);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> saveRoutines(@RequestBody List<RoutineRequest> requests) {
+        try {
+            RoutineBatchResult result = routineService.saveRoutines(requests);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            // Another save touched the same routines between this batch's read and its write
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Routines were saved concurrently; retry the batch"));
+        }
     }
 
     @PutMapping("/{id}/feedback")
-    public ResponseEntity<DailyRoutine> addFeedback(@PathVariable Long id, @Valid @RequestBody FeedbackRequest request) {
-        DailyRoutine routine = routineService.addFeedback(id, request.getFeedback());
-        return ResponseEntity.ok(routine);
+    public ResponseEntity<?> addFeedback(@PathVariable Long id, @Valid @RequestBody FeedbackRequest request) {
+        try {
+            RoutineView routine = routineService.addFeedback(id, request.getFeedback());
+            return ResponseEntity.ok(routine);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Routine was changed while saving feedback; reload it and try again"));
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -1,9 +1,14 @@
 package com.dailyroutine.controller;
 
-import com.dailyroutine.entity.Student;
+import com.dailyroutine.dto.StudentFeed;
+import com.dailyroutine.dto.StudentSummary;
+import com.dailyroutine.dto.StudentView;
+import com.dailyroutine.dto.VersionStamp;
 import com.dailyroutine.service.StudentService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -20,13 +25,29 @@ public class StudentController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Student>> getAllStudents() {
-        return ResponseEntity.ok(studentService.getAllStudents());
+    public ResponseEntity<List<StudentView>> getAllStudents(WebRequest webRequest) {
+        StudentService.ScopedVersion version = studentService.getRosterVersion();
+        if (webRequest.checkNotModified(version.etag(), version.stamp().lastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(studentService.getAllStudents());
+    }
+
+    @GetMapping("/home")
+    public ResponseEntity<?> getHomeFeed(@RequestParam(required = false) Integer routines) {
+        try {
+            List<StudentFeed> feed = studentService.getHomeFeed(routines);
+            return ResponseEntity.ok(feed);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @PostMapping
-    public ResponseEntity<Student> createStudent(@RequestBody Map<String, Object> request) {
-        Student student = studentService.createStudent(
+    public ResponseEntity<StudentView> createStudent(@RequestBody Map<String, Object> request) {
+        StudentView student = studentService.createStudent(
             (String) request.get("name"),
             (String) request.get("classGrade"),
             Long.valueOf(request.get("parentId").toString())
@@ -35,8 +56,8 @@ public class StudentController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Student> updateStudent(@PathVariable Long id, @RequestBody Map<String, String> request) {
-        Student student = studentService.updateStudent(id, request.get("name"), request.get("classGrade"));
+    public ResponseEntity<StudentView> updateStudent(@PathVariable Long id, @RequestBody Map<String, String> request) {
+        StudentView student = studentService.updateStudent(id, request.get("name"), request.get("classGrade"));
         return ResponseEntity.ok(student);
     }
 
@@ -47,7 +68,19 @@ public class StudentController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Student> getStudent(@PathVariable Long id) {
-        return ResponseEntity.ok(studentService.getStudentById(id));
+    public ResponseEntity<StudentView> getStudent(@PathVariable Long id, WebRequest webRequest) {
+        VersionStamp version = studentService.getStudentVersion(id);
+        if (version.count() > 0
+                && webRequest.checkNotModified(version.etag("student" + id), version.lastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(studentService.getStudentById(id));
+    }
+
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<StudentSummary> getSummary(@PathVariable Long id) {
+        return ResponseEntity.ok(studentService.getSummary(id));
     }
-}
\ No newline at end of file
+}
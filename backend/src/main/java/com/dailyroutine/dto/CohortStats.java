@@ -0,0 +1,29 @@
+package com.dailyroutine.dto;
+
+import com.dailyroutine.entity.DailyRoutine;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Aggregated routine metrics for one class grade over one date bucket.
+ */
+public record CohortStats(
+    LocalDate bucketStart,
+    String classGrade,
+    long routines,
+    long students,
+    MetricSummary screenTimeMinutes,
+    MetricSummary studyTimeMinutes,
+    // Minutes after midnight; sleep times before noon count as the following day (1440 + minutes)
+    MetricSummary wakeUpMinuteOfDay,
+    MetricSummary sleepMinuteOfDay,
+    Map<DailyRoutine.Behavior, Long> behavior,
+    long behaviorNotRecorded
+) {
+    public enum Bucket {
+        DAY, WEEK, MONTH
+    }
+
+    // Null when no routine in the group recorded the metric
+    public record MetricSummary(Double avg, Double p50, Double p90) {}
+}
@@ -0,0 +1,19 @@
+package com.dailyroutine.dto;
+
+import com.dailyroutine.entity.FoodItem;
+
+/**
+ * A catalog entry as listed to clients.
+ */
+public record FoodItemView(
+    Long id,
+    String name,
+    FoodItem.Category category
+) {
+    public static final String SELECT = "SELECT new com.dailyroutine.dto.FoodItemView(i.id, i.name, i.category) " +
+        "FROM FoodItem i ";
+
+    public static FoodItemView from(FoodItem item) {
+        return new FoodItemView(item.getId(), item.getName(), item.getCategory());
+    }
+}
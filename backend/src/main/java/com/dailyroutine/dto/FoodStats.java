@@ -0,0 +1,24 @@
+package com.dailyroutine.dto;
+
+import com.dailyroutine.entity.FoodItem;
+
+/**
+ * How often one food item, or one category of items, was eaten by a class grade over a date
+ * range. {@code share} is the fraction of the grade's routines in the range that included it.
+ */
+public record FoodStats(
+    String classGrade,
+    int rank,
+    // Null when grouped by category
+    Long foodItemId,
+    String name,
+    // Null for items not yet categorized
+    FoodItem.Category category,
+    long routines,
+    long students,
+    double share
+) {
+    public enum GroupBy {
+        ITEM, CATEGORY
+    }
+}
@@ -0,0 +1,15 @@
+package com.dailyroutine.dto;
+
+/**
+ * Outcome of one entry of a batch upload; {@code index} is its position in the request array.
+ */
+public record RoutineBatchItemResult(int index, Status status, Long id, String error) {
+
+    public enum Status {
+        CREATED, UPDATED, FAILED
+    }
+
+    public static RoutineBatchItemResult failed(int index, String error) {
+        return new RoutineBatchItemResult(index, Status.FAILED, null, error);
+    }
+}
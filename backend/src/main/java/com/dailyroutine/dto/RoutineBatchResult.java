@@ -0,0 +1,20 @@
+package com.dailyroutine.dto;
+
+import java.util.List;
+
+public record RoutineBatchResult(int created, int updated, int failed, List<RoutineBatchItemResult> items) {
+
+    public static RoutineBatchResult of(List<RoutineBatchItemResult> items) {
+        int created = 0;
+        int updated = 0;
+        int failed = 0;
+        for (RoutineBatchItemResult item : items) {
+            switch (item.status()) {
+                case CREATED -> created++;
+                case UPDATED -> updated++;
+                case FAILED -> failed++;
+            }
+        }
+        return new RoutineBatchResult(created, updated, failed, items);
+    }
+}
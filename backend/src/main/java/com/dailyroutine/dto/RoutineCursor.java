@@ -0,0 +1,40 @@
+package com.dailyroutine.dto;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position of the last routine returned in a page, encoded as {@code <routineDate>_<id>}.
+ */
+public class RoutineCursor {
+    private final LocalDate routineDate;
+    private final Long id;
+
+    public RoutineCursor(LocalDate routineDate, Long id) {
+        this.routineDate = routineDate;
+        this.id = id;
+    }
+
+    public static RoutineCursor parse(String cursor) {
+        int separator = cursor.indexOf('_');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new RoutineCursor(
+                LocalDate.parse(cursor.substring(0, separator)),
+                Long.valueOf(cursor.substring(separator + 1))
+            );
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        return routineDate + "_" + id;
+    }
+
+    public LocalDate getRoutineDate() { return routineDate; }
+
+    public Long getId() { return id; }
+}
@@ -0,0 +1,39 @@
+package com.dailyroutine.dto;
+
+import com.dailyroutine.entity.DailyRoutine;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * The numeric parts of a routine the analytics snapshot keeps, plus the student's class grade
+ * it is grouped by.
+ */
+public record RoutineMetrics(
+    Long studentId,
+    String classGrade,
+    LocalDate routineDate,
+    LocalTime wakeUpTime,
+    LocalTime sleepTime,
+    Integer screenTimeMinutes,
+    Integer studyTimeMinutes,
+    DailyRoutine.Behavior behaviorAtHome
+) {
+    // Caller must have student initialized
+    public static RoutineMetrics from(DailyRoutine routine) {
+        return from(routine, routine.getStudent().getClassGrade());
+    }
+
+    // Variant for callers that know the student's grade and hold only a reference to the student
+    public static RoutineMetrics from(DailyRoutine routine, String classGrade) {
+        return new RoutineMetrics(
+            routine.getStudent().getId(),
+            classGrade,
+            routine.getRoutineDate(),
+            routine.getWakeUpTime(),
+            routine.getSleepTime(),
+            routine.getScreenTimeMinutes(),
+            routine.getStudyTimeMinutes(),
+            routine.getBehaviorAtHome()
+        );
+    }
+}
@@ -27,6 +27,8 @@ public class RoutineRequest {
     private LocalTime sleepTime;
     private DailyRoutine.Behavior behaviorAtHome;
     private String notes;
+    // Version the client last read; when set, a routine changed since is not overwritten
+    private Long version;
 
     // Constructors
     public RoutineRequest() {}
@@ -82,4 +84,7 @@ public class RoutineRequest {
 
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
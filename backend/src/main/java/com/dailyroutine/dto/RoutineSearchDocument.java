@@ -0,0 +1,41 @@
+package com.dailyroutine.dto;
+
+import com.dailyroutine.entity.DailyRoutine;
+import java.time.LocalDate;
+
+/**
+ * The parts of a routine the search index keeps: its free-text columns plus the student
+ * and date it is filtered and ordered by.
+ */
+public record RoutineSearchDocument(
+    Long id,
+    Long studentId,
+    LocalDate routineDate,
+    String breakfastItems,
+    String lunchItems,
+    String dinnerItems,
+    String beforeClassActivity,
+    String notes,
+    String adminFeedback
+) {
+    /** JPQL select list matching the canonical constructor; expects {@code r} for the routine. */
+    public static final String SELECT = "SELECT new com.dailyroutine.dto.RoutineSearchDocument(" +
+        "r.id, r.student.id, r.routineDate, r.breakfastItems, r.lunchItems, r.dinnerItems, " +
+        "r.beforeClassActivity, r.notes, r.adminFeedback) " +
+        "FROM DailyRoutine r ";
+
+    // Caller must have student initialized
+    public static RoutineSearchDocument from(DailyRoutine routine) {
+        return new RoutineSearchDocument(
+            routine.getId(),
+            routine.getStudent().getId(),
+            routine.getRoutineDate(),
+            routine.getBreakfastItems(),
+            routine.getLunchItems(),
+            routine.getDinnerItems(),
+            routine.getBeforeClassActivity(),
+            routine.getNotes(),
+            routine.getAdminFeedback()
+        );
+    }
+}
@@ -0,0 +1,95 @@
+package com.dailyroutine.dto;
+
+import com.dailyroutine.entity.DailyRoutine;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Flat read model of a routine. Carries the student's id, name and grade instead of the
+ * entity graph, so listings never touch the users table beyond the feedback author's name.
+ */
+public record RoutineView(
+    Long id,
+    Long studentId,
+    String studentName,
+    String classGrade,
+    LocalDate routineDate,
+    LocalTime wakeUpTime,
+    LocalTime schoolTime,
+    LocalTime breakfastTime,
+    String breakfastItems,
+    LocalTime lunchTime,
+    String lunchItems,
+    Integer screenTimeMinutes,
+    LocalTime napTime,
+    Integer studyTimeMinutes,
+    String beforeClassActivity,
+    LocalTime dinnerTime,
+    String dinnerItems,
+    LocalTime sleepTime,
+    DailyRoutine.Behavior behaviorAtHome,
+    String notes,
+    String adminFeedback,
+    LocalDateTime feedbackDate,
+    String feedbackByUsername,
+    Long createdById,
+    LocalDateTime createdAt,
+    // Send back as RoutineRequest.version to update only if nobody else has since
+    Long version
+) {
+    /**
+     * JPQL select list matching the canonical constructor; expects {@code r} joined to
+     * {@code s} (student) and left-joined to {@code f} (feedback author).
+     */
+    public static final String SELECT = "SELECT new com.dailyroutine.dto.RoutineView(" +
+        "r.id, s.id, s.name, s.classGrade, r.routineDate, r.wakeUpTime, r.schoolTime, " +
+        "r.breakfastTime, r.breakfastItems, r.lunchTime, r.lunchItems, r.screenTimeMinutes, " +
+        "r.napTime, r.studyTimeMinutes, r.beforeClassActivity, r.dinnerTime, r.dinnerItems, " +
+        "r.sleepTime, r.behaviorAtHome, r.notes, r.adminFeedback, r.feedbackDate, f.username, " +
+        "r.createdBy.id, r.createdAt, r.version) " +
+        "FROM DailyRoutine r JOIN r.student s LEFT JOIN r.feedbackBy f ";
+
+    // Caller must have student and feedbackBy initialized (or null)
+    public static RoutineView from(DailyRoutine routine) {
+        return from(routine, routine.getFeedbackBy() != null ? routine.getFeedbackBy().getUsername() : null);
+    }
+
+    // Variant for callers that already know the feedback author and hold only a reference to it
+    public static RoutineView from(DailyRoutine routine, String feedbackByUsername) {
+        return from(routine, routine.getStudent().getName(), routine.getStudent().getClassGrade(), feedbackByUsername);
+    }
+
+    // Variant for callers that know the student's name and grade and hold only a reference to the student
+    public static RoutineView from(DailyRoutine routine, String studentName, String classGrade,
+                                   String feedbackByUsername) {
+        return new RoutineView(
+            routine.getId(),
+            routine.getStudent().getId(),
+            studentName,
+            classGrade,
+            routine.getRoutineDate(),
+            routine.getWakeUpTime(),
+            routine.getSchoolTime(),
+            routine.getBreakfastTime(),
+            routine.getBreakfastItems(),
+            routine.getLunchTime(),
+            routine.getLunchItems(),
+            routine.getScreenTimeMinutes(),
+            routine.getNapTime(),
+            routine.getStudyTimeMinutes(),
+            routine.getBeforeClassActivity(),
+            routine.getDinnerTime(),
+            routine.getDinnerItems(),
+            routine.getSleepTime(),
+            routine.getBehaviorAtHome(),
+            routine.getNotes(),
+            routine.getAdminFeedback(),
+            routine.getFeedbackDate(),
+            feedbackByUsername,
+            routine.getCreatedBy() != null ? routine.getCreatedBy().getId() : null,
+            routine.getCreatedAt(),
+            routine.getVersion()
+        );
+    }
+}
@@ -0,0 +1,16 @@
+package com.dailyroutine.dto;
+
+import java.util.List;
+
+/**
+ * One child on the parent home screen: who they are, whether today's routine is in, how many
+ * routines still wait for school feedback, and the newest routines, newest first.
+ */
+public record StudentFeed(
+    Long id,
+    String name,
+    String classGrade,
+    boolean loggedToday,
+    long pendingFeedback,
+    List<RoutineView> latestRoutines
+) {}
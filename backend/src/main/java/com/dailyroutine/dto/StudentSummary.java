@@ -0,0 +1,36 @@
+package com.dailyroutine.dto;
+
+import com.dailyroutine.entity.DailyRoutine;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trend overview for the parent dashboard. Weeks and months are newest first.
+ */
+public record StudentSummary(
+    Long studentId,
+    Window last7Days,
+    Window last30Days,
+    int currentStreakDays,
+    List<Period> weeks,
+    List<Period> months
+) {
+    public record Window(int loggedDays, Double avgScreenTimeMinutes, Double avgStudyTimeMinutes) {}
+
+    public record Period(
+        LocalDate periodStart,
+        int loggedDays,
+        Double avgScreenTimeMinutes,
+        Double avgStudyTimeMinutes,
+        TimeOfDay wakeUp,
+        TimeOfDay sleep,
+        Map<DailyRoutine.Behavior, Long> behavior,
+        Double behaviorScore,
+        long feedbackCount
+    ) {}
+
+    // Mean time and its standard deviation in minutes; a lower deviation means a steadier routine
+    public record TimeOfDay(LocalTime mean, Double stdDevMinutes) {}
+}
@@ -0,0 +1,32 @@
+package com.dailyroutine.dto;
+
+import com.dailyroutine.entity.Student;
+import java.time.LocalDateTime;
+
+/**
+ * Flat read model of a student with only the parent's id and username.
+ */
+public record StudentView(
+    Long id,
+    String name,
+    String classGrade,
+    Long parentId,
+    String parentUsername,
+    LocalDateTime createdAt
+) {
+    public static final String SELECT = "SELECT new com.dailyroutine.dto.StudentView(" +
+        "s.id, s.name, s.classGrade, p.id, p.username, s.createdAt) " +
+        "FROM Student s LEFT JOIN s.parent p ";
+
+    // Caller must have parent initialized (or null)
+    public static StudentView from(Student student) {
+        return new StudentView(
+            student.getId(),
+            student.getName(),
+            student.getClassGrade(),
+            student.getParent() != null ? student.getParent().getId() : null,
+            student.getParent() != null ? student.getParent().getUsername() : null,
+            student.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,46 @@
+package com.dailyroutine.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Cheap fingerprint of a set of rows: row count, sum of their {@code @Version} values and the
+ * latest {@code updated_at}. Any insert, update or delete in the set changes it, so it can
+ * stand in for the response body when answering conditional requests.
+ */
+public record VersionStamp(Long count, Long versionSum, LocalDateTime lastModified) {
+
+    // Aggregates over an empty set arrive as nulls
+    public VersionStamp {
+        count = count != null ? count : 0L;
+        versionSum = versionSum != null ? versionSum : 0L;
+    }
+
+    // JPQL constructor for child rows plus their parent row
+    public VersionStamp(Long count, Long versionSum, LocalDateTime lastModified,
+                        Long parentVersion, LocalDateTime parentLastModified) {
+        this(count,
+            (versionSum != null ? versionSum : 0L) + (parentVersion != null ? parentVersion : 0L),
+            later(lastModified, parentLastModified));
+    }
+
+    /**
+     * Weak entity tag; {@code scope} distinguishes the same URL served to different callers.
+     */
+    public String etag(String scope) {
+        return "W/\"" + scope + "-" + count + "-" + versionSum + "-" + lastModifiedMillis() + "\"";
+    }
+
+    public long lastModifiedMillis() {
+        return lastModified != null
+            ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+            : -1;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+}
@@ -10,11 +10,13 @@ import java.time.LocalTime;
     @UniqueConstraint(columnNames = {"student_id", "routine_date"})
 })
 public class DailyRoutine {
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_routines_seq")
+    @SequenceGenerator(name = "daily_routines_seq", sequenceName = "daily_routines_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", nullable = false)
     private Student student;
 
@@ -73,21 +75,36 @@ public class DailyRoutine {
     @Column(name = "feedback_date")
     private LocalDateTime feedbackDate;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "feedback_by")
     private User feedbackBy;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
     private User createdBy;
 
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
     public enum Behavior {
         EXCELLENT, GOOD, AVERAGE, NEEDS_IMPROVEMENT
     }
 
+    // Stored as bits of routine_food_items.meals by ordinal; append new values only
+    public enum Meal {
+        BREAKFAST, LUNCH, DINNER;
+
+        public int bit() {
+            return 1 << ordinal();
+        }
+    }
+
     // Constructors
     public DailyRoutine() {}
 
@@ -160,4 +177,16 @@ public class DailyRoutine {
 
     public User getFeedbackBy() { return feedbackBy; }
     public void setFeedbackBy(User feedbackBy) { this.feedbackBy = feedbackBy; }
-}
\ No newline at end of file
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+}
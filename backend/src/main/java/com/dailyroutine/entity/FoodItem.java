@@ -0,0 +1,51 @@
+package com.dailyroutine.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One distinct meal item, such as "Poha" or "milk". Items are created by {@code FoodCatalog}
+ * the first time a routine mentions them; admins only assign a category.
+ */
+@Entity
+@Table(name = "food_items")
+public class FoodItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "normalized_name", nullable = false, unique = true, length = 100)
+    private String normalizedName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Category category;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public enum Category {
+        GRAIN, PROTEIN, DAIRY, FRUIT, VEGETABLE, MIXED_DISH, SNACK, SWEET, BEVERAGE, OTHER
+    }
+
+    public FoodItem() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getNormalizedName() { return normalizedName; }
+    public void setNormalizedName(String normalizedName) { this.normalizedName = normalizedName; }
+
+    public Category getCategory() { return category; }
+    public void setCategory(Category category) { this.category = category; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
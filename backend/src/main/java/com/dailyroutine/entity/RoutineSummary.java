@@ -0,0 +1,167 @@
+package com.dailyroutine.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated routine metrics for one student over one calendar week (ISO, Monday first)
+ * or month. Rows are recomputed for the affected periods whenever a routine of the student
+ * is written, so reads never have to scan the student's history.
+ */
+@Entity
+@Table(name = "routine_summaries", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"student_id", "period_type", "period_start"})
+})
+public class RoutineSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "routine_summaries_seq")
+    @SequenceGenerator(name = "routine_summaries_seq", sequenceName = "routine_summaries_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period_type", nullable = false)
+    private PeriodType periodType;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "routine_count")
+    private long routineCount;
+
+    // Bit n set when day n+1 of the period (ISO weekday or day of month) has a routine
+    @Column(name = "logged_days_mask")
+    private long loggedDaysMask;
+
+    @Column(name = "screen_time_total")
+    private long screenTimeTotal;
+
+    @Column(name = "screen_time_entries")
+    private long screenTimeEntries;
+
+    @Column(name = "study_time_total")
+    private long studyTimeTotal;
+
+    @Column(name = "study_time_entries")
+    private long studyTimeEntries;
+
+    @Column(name = "wake_up_minutes_total")
+    private long wakeUpMinutesTotal;
+
+    @Column(name = "wake_up_minutes_squares")
+    private long wakeUpMinutesSquares;
+
+    @Column(name = "wake_up_entries")
+    private long wakeUpEntries;
+
+    // Sleep times before noon count as the following day (minute-of-day + 1440)
+    @Column(name = "sleep_minutes_total")
+    private long sleepMinutesTotal;
+
+    @Column(name = "sleep_minutes_squares")
+    private long sleepMinutesSquares;
+
+    @Column(name = "sleep_entries")
+    private long sleepEntries;
+
+    @Column(name = "excellent_count")
+    private long excellentCount;
+
+    @Column(name = "good_count")
+    private long goodCount;
+
+    @Column(name = "average_count")
+    private long averageCount;
+
+    @Column(name = "needs_improvement_count")
+    private long needsImprovementCount;
+
+    @Column(name = "feedback_count")
+    private long feedbackCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum PeriodType {
+        WEEK, MONTH
+    }
+
+    // Constructors
+    public RoutineSummary() {}
+
+    public RoutineSummary(Long studentId, PeriodType periodType, LocalDate periodStart) {
+        this.studentId = studentId;
+        this.periodType = periodType;
+        this.periodStart = periodStart;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+
+    public PeriodType getPeriodType() { return periodType; }
+    public void setPeriodType(PeriodType periodType) { this.periodType = periodType; }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+
+    public long getRoutineCount() { return routineCount; }
+    public void setRoutineCount(long routineCount) { this.routineCount = routineCount; }
+
+    public long getLoggedDaysMask() { return loggedDaysMask; }
+    public void setLoggedDaysMask(long loggedDaysMask) { this.loggedDaysMask = loggedDaysMask; }
+
+    public long getScreenTimeTotal() { return screenTimeTotal; }
+    public void setScreenTimeTotal(long screenTimeTotal) { this.screenTimeTotal = screenTimeTotal; }
+
+    public long getScreenTimeEntries() { return screenTimeEntries; }
+    public void setScreenTimeEntries(long screenTimeEntries) { this.screenTimeEntries = screenTimeEntries; }
+
+    public long getStudyTimeTotal() { return studyTimeTotal; }
+    public void setStudyTimeTotal(long studyTimeTotal) { this.studyTimeTotal = studyTimeTotal; }
+
+    public long getStudyTimeEntries() { return studyTimeEntries; }
+    public void setStudyTimeEntries(long studyTimeEntries) { this.studyTimeEntries = studyTimeEntries; }
+
+    public long getWakeUpMinutesTotal() { return wakeUpMinutesTotal; }
+    public void setWakeUpMinutesTotal(long wakeUpMinutesTotal) { this.wakeUpMinutesTotal = wakeUpMinutesTotal; }
+
+    public long getWakeUpMinutesSquares() { return wakeUpMinutesSquares; }
+    public void setWakeUpMinutesSquares(long wakeUpMinutesSquares) { this.wakeUpMinutesSquares = wakeUpMinutesSquares; }
+
+    public long getWakeUpEntries() { return wakeUpEntries; }
+    public void setWakeUpEntries(long wakeUpEntries) { this.wakeUpEntries = wakeUpEntries; }
+
+    public long getSleepMinutesTotal() { return sleepMinutesTotal; }
+    public void setSleepMinutesTotal(long sleepMinutesTotal) { this.sleepMinutesTotal = sleepMinutesTotal; }
+
+    public long getSleepMinutesSquares() { return sleepMinutesSquares; }
+    public void setSleepMinutesSquares(long sleepMinutesSquares) { this.sleepMinutesSquares = sleepMinutesSquares; }
+
+    public long getSleepEntries() { return sleepEntries; }
+    public void setSleepEntries(long sleepEntries) { this.sleepEntries = sleepEntries; }
+
+    public long getExcellentCount() { return excellentCount; }
+    public void setExcellentCount(long excellentCount) { this.excellentCount = excellentCount; }
+
+    public long getGoodCount() { return goodCount; }
+    public void setGoodCount(long goodCount) { this.goodCount = goodCount; }
+
+    public long getAverageCount() { return averageCount; }
+    public void setAverageCount(long averageCount) { this.averageCount = averageCount; }
+
+    public long getNeedsImprovementCount() { return needsImprovementCount; }
+    public void setNeedsImprovementCount(long needsImprovementCount) { this.needsImprovementCount = needsImprovementCount; }
+
+    public long getFeedbackCount() { return feedbackCount; }
+    public void setFeedbackCount(long feedbackCount) { this.feedbackCount = feedbackCount; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
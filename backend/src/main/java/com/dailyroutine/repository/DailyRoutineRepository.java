@@ -1,18 +1,215 @@
 package com.dailyroutine.repository;
 
+import com.dailyroutine.dto.RoutineRequest;
+import com.dailyroutine.dto.RoutineSearchDocument;
+import com.dailyroutine.dto.RoutineView;
+import com.dailyroutine.dto.VersionStamp;
 import com.dailyroutine.entity.DailyRoutine;
-import com.dailyroutine.entity.Student;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface DailyRoutineRepository extends JpaRepository<DailyRoutine, Long> {
-    List<DailyRoutine> findByStudent(Student student);
-    List<DailyRoutine> findByStudentId(Long studentId);
-    List<DailyRoutine> findByRoutineDate(LocalDate date);
+    @EntityGraph(attributePaths = "feedbackBy")
     Optional<DailyRoutine> findByStudentIdAndRoutineDate(Long studentId, LocalDate date);
-    List<DailyRoutine> findByStudentIdOrderByRoutineDateDesc(Long studentId);
-}
\ No newline at end of file
+
+    // Only the columns the rolling dashboard windows need
+    List<RoutineMetrics> findByStudentIdAndRoutineDateBetween(Long studentId, LocalDate from, LocalDate to);
+
+    interface RoutineMetrics {
+        LocalDate getRoutineDate();
+        Integer getScreenTimeMinutes();
+        Integer getStudyTimeMinutes();
+    }
+
+    // Superset of the routines touched by a batch; callers match exact (student, date) pairs
+    List<DailyRoutine> findByStudentIdInAndRoutineDateIn(Collection<Long> studentIds, Collection<LocalDate> dates);
+
+    // Routine plus everything RoutineView.from needs, in one statement
+    @EntityGraph(attributePaths = {"student", "feedbackBy"})
+    Optional<DailyRoutine> findWithStudentById(Long id);
+
+    /**
+     * Inserts the request's routine, or overwrites the one already stored for that student and
+     * date, in a single statement that takes the row lock through the unique key. An existing
+     * routine is only overwritten when the request carries no version or the stored one still
+     * matches it, and a missing one is only inserted when the request carries no version;
+     * otherwise nothing is written and the result is empty. Returns the row as
+     * written, version included. Admin feedback is left as it is.
+     *
+     * <p>Ids are taken from the sequence directly, which skips the rest of a pooled block of
+     * {@code allocationSize} ids each time; the gaps are harmless.
+     */
+    @Query(nativeQuery = true, value =
+        "SELECT * FROM FINAL TABLE (MERGE INTO daily_routines t USING (VALUES (" +
+        "CAST(:#{#request.studentId} AS BIGINT), CAST(:#{#request.routineDate} AS DATE), " +
+        "CAST(:#{#request.wakeUpTime} AS TIME(6)), CAST(:#{#request.schoolTime} AS TIME(6)), " +
+        "CAST(:#{#request.breakfastTime} AS TIME(6)), CAST(:#{#request.breakfastItems} AS VARCHAR), " +
+        "CAST(:#{#request.lunchTime} AS TIME(6)), CAST(:#{#request.lunchItems} AS VARCHAR), " +
+        "CAST(:#{#request.screenTimeMinutes} AS INTEGER), CAST(:#{#request.napTime} AS TIME(6)), " +
+        "CAST(:#{#request.studyTimeMinutes} AS INTEGER), CAST(:#{#request.beforeClassActivity} AS VARCHAR), " +
+        "CAST(:#{#request.dinnerTime} AS TIME(6)), CAST(:#{#request.dinnerItems} AS VARCHAR), " +
+        "CAST(:#{#request.sleepTime} AS TIME(6)), CAST(:#{#request.behaviorAtHome?.name()} AS VARCHAR), " +
+        "CAST(:#{#request.notes} AS VARCHAR), CAST(:createdBy AS BIGINT), CAST(:now AS TIMESTAMP(6)), " +
+        "CAST(:#{#request.version} AS BIGINT))) " +
+        "s (student_id, routine_date, wake_up_time, school_time, breakfast_time, breakfast_items, lunch_time, " +
+        "lunch_items, screen_time_minutes, nap_time, study_time_minutes, before_class_activity, dinner_time, " +
+        "dinner_items, sleep_time, behavior_at_home, notes, created_by, now, expected_version) " +
+        "ON t.student_id = s.student_id AND t.routine_date = s.routine_date " +
+        "WHEN MATCHED AND (s.expected_version IS NULL OR t.version = s.expected_version) THEN UPDATE SET " +
+        "wake_up_time = s.wake_up_time, school_time = s.school_time, breakfast_time = s.breakfast_time, " +
+        "breakfast_items = s.breakfast_items, lunch_time = s.lunch_time, lunch_items = s.lunch_items, " +
+        "screen_time_minutes = s.screen_time_minutes, nap_time = s.nap_time, " +
+        "study_time_minutes = s.study_time_minutes, before_class_activity = s.before_class_activity, " +
+        "dinner_time = s.dinner_time, dinner_items = s.dinner_items, sleep_time = s.sleep_time, " +
+        "behavior_at_home = s.behavior_at_home, notes = s.notes, created_by = s.created_by, " +
+        "updated_at = s.now, version = t.version + 1 " +
+        "WHEN NOT MATCHED AND s.expected_version IS NULL THEN INSERT (id, student_id, routine_date, wake_up_time, school_time, breakfast_time, " +
+        "breakfast_items, lunch_time, lunch_items, screen_time_minutes, nap_time, study_time_minutes, " +
+        "before_class_activity, dinner_time, dinner_items, sleep_time, behavior_at_home, notes, created_by, " +
+        "created_at, updated_at, version) VALUES (NEXT VALUE FOR daily_routines_seq, s.student_id, " +
+        "s.routine_date, s.wake_up_time, s.school_time, s.breakfast_time, s.breakfast_items, s.lunch_time, " +
+        "s.lunch_items, s.screen_time_minutes, s.nap_time, s.study_time_minutes, s.before_class_activity, " +
+        "s.dinner_time, s.dinner_items, s.sleep_time, s.behavior_at_home, s.notes, s.created_by, s.now, s.now, 0))")
+    Optional<DailyRoutine> upsert(@Param("request") RoutineRequest request,
+                                  @Param("createdBy") Long createdBy,
+                                  @Param("now") LocalDateTime now);
+
+    // Covers the student's routines and the student row itself, whose name and grade appear in RoutineView
+    @Query("SELECT new com.dailyroutine.dto.VersionStamp(COUNT(r), SUM(r.version), MAX(r.updatedAt), " +
+           "MAX(s.version), MAX(s.updatedAt)) " +
+           "FROM Student s LEFT JOIN s.routines r WHERE s.id = :studentId")
+    VersionStamp findStudentHistoryVersion(@Param("studentId") Long studentId);
+
+    @Query("SELECT new com.dailyroutine.dto.VersionStamp(COUNT(r), SUM(r.version + s.version), MAX(r.updatedAt), " +
+           "0L, MAX(s.updatedAt)) " +
+           "FROM DailyRoutine r JOIN r.student s WHERE r.routineDate = :date")
+    VersionStamp findDateVersion(@Param("date") LocalDate date);
+
+    String WAKE_UP_MINUTES = "HOUR(r.wake_up_time) * 60 + MINUTE(r.wake_up_time)";
+
+    // Per (bucket, class grade) aggregates; bucket is one of CohortStats.Bucket, weeks start on Monday.
+    // RoutineMetricsSnapshot answers the same from memory once loaded; CohortSnapshotParityTest keeps them in step.
+    @Query(nativeQuery = true, value =
+        "SELECT CASE :bucket WHEN 'DAY' THEN r.routine_date " +
+        "                    WHEN 'WEEK' THEN CAST(DATE_TRUNC('ISO_WEEK', r.routine_date) AS DATE) " +
+        "                    ELSE CAST(DATE_TRUNC('MONTH', r.routine_date) AS DATE) END AS bucketStart, " +
+        "s.class_grade AS classGrade, " +
+        "COUNT(*) AS routines, " +
+        "COUNT(DISTINCT r.student_id) AS students, " +
+        "AVG(CAST(r.screen_time_minutes AS DOUBLE)) AS avgScreenTime, " +
+        "CAST(PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY r.screen_time_minutes) AS DOUBLE) AS p50ScreenTime, " +
+        "CAST(PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY r.screen_time_minutes) AS DOUBLE) AS p90ScreenTime, " +
+        "AVG(CAST(r.study_time_minutes AS DOUBLE)) AS avgStudyTime, " +
+        "CAST(PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY r.study_time_minutes) AS DOUBLE) AS p50StudyTime, " +
+        "CAST(PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY r.study_time_minutes) AS DOUBLE) AS p90StudyTime, " +
+        "AVG(CAST(" + WAKE_UP_MINUTES + " AS DOUBLE)) AS avgWakeUp, " +
+        "CAST(PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY " + WAKE_UP_MINUTES + ") AS DOUBLE) AS p50WakeUp, " +
+        "CAST(PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY " + WAKE_UP_MINUTES + ") AS DOUBLE) AS p90WakeUp, " +
+        "AVG(CAST(" + RoutineSummaryRepository.SLEEP_MINUTES + " AS DOUBLE)) AS avgSleep, " +
+        "CAST(PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY " + RoutineSummaryRepository.SLEEP_MINUTES + ") AS DOUBLE) AS p50Sleep, " +
+        "CAST(PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY " + RoutineSummaryRepository.SLEEP_MINUTES + ") AS DOUBLE) AS p90Sleep, " +
+        "SUM(CASE WHEN r.behavior_at_home = 'EXCELLENT' THEN 1 ELSE 0 END) AS excellent, " +
+        "SUM(CASE WHEN r.behavior_at_home = 'GOOD' THEN 1 ELSE 0 END) AS good, " +
+        "SUM(CASE WHEN r.behavior_at_home = 'AVERAGE' THEN 1 ELSE 0 END) AS average, " +
+        "SUM(CASE WHEN r.behavior_at_home = 'NEEDS_IMPROVEMENT' THEN 1 ELSE 0 END) AS needsImprovement, " +
+        "SUM(CASE WHEN r.behavior_at_home IS NULL THEN 1 ELSE 0 END) AS behaviorNotRecorded " +
+        "FROM daily_routines r JOIN students s ON s.id = r.student_id " +
+        "WHERE r.routine_date BETWEEN :from AND :to " +
+        "AND (:classGrade IS NULL OR s.class_grade = :classGrade) " +
+        "GROUP BY bucketStart, s.class_grade " +
+        "ORDER BY bucketStart, classGrade")
+    List<CohortStatsRow> aggregateCohorts(@Param("bucket") String bucket,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to,
+                                          @Param("classGrade") String classGrade);
+
+    interface CohortStatsRow {
+        LocalDate getBucketStart();
+        String getClassGrade();
+        long getRoutines();
+        long getStudents();
+        Double getAvgScreenTime();
+        Double getP50ScreenTime();
+        Double getP90ScreenTime();
+        Double getAvgStudyTime();
+        Double getP50StudyTime();
+        Double getP90StudyTime();
+        Double getAvgWakeUp();
+        Double getP50WakeUp();
+        Double getP90WakeUp();
+        Double getAvgSleep();
+        Double getP50Sleep();
+        Double getP90Sleep();
+        long getExcellent();
+        long getGood();
+        long getAverage();
+        long getNeedsImprovement();
+        long getBehaviorNotRecorded();
+    }
+
+    // Keyset page of a student's history, newest first, strictly after (afterDate, afterId)
+    @Query(RoutineView.SELECT + "WHERE s.id = :studentId " +
+           "AND r.routineDate BETWEEN :from AND :to " +
+           "AND (r.routineDate < :afterDate OR (r.routineDate = :afterDate AND r.id < :afterId)) " +
+           "ORDER BY r.routineDate DESC, r.id DESC")
+    List<RoutineView> findStudentHistoryPage(@Param("studentId") Long studentId,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to,
+                                             @Param("afterDate") LocalDate afterDate,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    // Keyset page of one day's routines in id order, optionally narrowed by class grade and behavior
+    @Query(RoutineView.SELECT + "WHERE r.routineDate = :date AND r.id > :afterId " +
+           "AND (:classGrade IS NULL OR s.classGrade = :classGrade) " +
+           "AND (:behavior IS NULL OR r.behaviorAtHome = :behavior) " +
+           "ORDER BY r.id ASC")
+    List<RoutineView> findDatePage(@Param("date") LocalDate date,
+                                   @Param("afterId") Long afterId,
+                                   @Param("classGrade") String classGrade,
+                                   @Param("behavior") DailyRoutine.Behavior behavior,
+                                   Pageable pageable);
+
+    // Forward-only read of a date range in (routine_date, id) index order, so no sort buffers the result.
+    // Projections are never managed, so the persistence context stays empty however many rows pass.
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(RoutineView.SELECT + "WHERE r.routineDate BETWEEN :from AND :to " +
+           "AND (:classGrade IS NULL OR s.classGrade = :classGrade) " +
+           "ORDER BY r.routineDate ASC, r.id ASC")
+    Stream<RoutineView> streamForExport(@Param("from") LocalDate from,
+                                        @Param("to") LocalDate to,
+                                        @Param("classGrade") String classGrade);
+
+    // Full read for rebuilding the search index; order doesn't matter, so this is a plain table scan
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(RoutineSearchDocument.SELECT)
+    Stream<RoutineSearchDocument> streamSearchDocuments();
+
+    @Query(RoutineSearchDocument.SELECT + "WHERE r.id IN :ids")
+    List<RoutineSearchDocument> findSearchDocumentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(RoutineView.SELECT + "WHERE r.id IN :ids")
+    List<RoutineView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Newest `limit` routines of each of the parent's children, ranked per student in one pass
+    @Query(RoutineView.SELECT + "WHERE s.parent.id = :parentId AND r.id IN (" +
+           "SELECT latest.id FROM (SELECT r2.id AS id, ROW_NUMBER() OVER (PARTITION BY r2.student.id " +
+           "ORDER BY r2.routineDate DESC, r2.id DESC) AS rank FROM DailyRoutine r2 " +
+           "WHERE r2.student.parent.id = :parentId) latest WHERE latest.rank <= :limit) " +
+           "ORDER BY s.id, r.routineDate DESC, r.id DESC")
+    List<RoutineView> findLatestViewsByParentId(@Param("parentId") Long parentId, @Param("limit") int limit);
+}
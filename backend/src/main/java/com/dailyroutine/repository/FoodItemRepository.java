@@ -0,0 +1,90 @@
+package com.dailyroutine.repository;
+
+import com.dailyroutine.dto.FoodItemView;
+import com.dailyroutine.entity.FoodItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface FoodItemRepository extends JpaRepository<FoodItem, Long> {
+
+    // Routines in range with their food items; meal is a DailyRoutine.Meal bit, or null for every meal
+    String LINKS = "FROM daily_routines r JOIN routine_food_items f ON f.routine_id = r.id ";
+    String IN_RANGE =
+        "WHERE r.routine_date BETWEEN :from AND :to " +
+        "AND (:meal IS NULL OR BITAND(f.meals, CAST(:meal AS TINYINT)) <> 0) " +
+        "AND (:classGrade IS NULL OR r.student_id IN (SELECT id FROM students WHERE class_grade = :classGrade)) ";
+    // Counts are taken per student on integer keys first and only then rolled up to the grade, which
+    // also makes the student count a plain COUNT(*). Derived tables rather than WITH: H2 plans a CTE
+    // once with its parameters unset, so a parameterized CTE returns nothing
+    String PER_GRADE =
+        "JOIN students s ON s.id = per_student.student_id GROUP BY s.class_grade, per_student.grouping_key";
+    // Routines per class grade in range, the denominator of share
+    String TOTALS =
+        "JOIN (SELECT s.class_grade, COUNT(*) AS routines " +
+        "FROM daily_routines r JOIN students s ON s.id = r.student_id " +
+        "WHERE r.routine_date BETWEEN :from AND :to " +
+        "AND (:classGrade IS NULL OR s.class_grade = :classGrade) " +
+        "GROUP BY s.class_grade) totals ON totals.class_grade = ranked.class_grade ";
+    String SELECT_RANKED =
+        "SELECT ranked.class_grade AS classGrade, ranked.item_rank AS itemRank, " +
+        "ranked.routines AS routines, ranked.students AS students, " +
+        "CAST(ranked.routines AS DOUBLE) / totals.routines AS share, ";
+    String RANK =
+        "SELECT grades.*, ROW_NUMBER() OVER (PARTITION BY class_grade " +
+        "ORDER BY routines DESC, grouping_key) AS item_rank FROM (SELECT s.class_grade, " +
+        "per_student.grouping_key, SUM(per_student.routines) AS routines, COUNT(*) AS students ";
+
+    @Query(FoodItemView.SELECT + "ORDER BY i.name")
+    List<FoodItemView> findAllViews();
+
+    // Top :limit items per class grade by the number of routines that included them. A routine has
+    // one row per item, so COUNT(*) counts routines
+    @Query(nativeQuery = true, value = SELECT_RANKED +
+        "i.id AS foodItemId, i.name AS name, i.category AS category " +
+        "FROM (" + RANK +
+        "FROM (SELECT r.student_id, f.food_item_id AS grouping_key, COUNT(*) AS routines " + LINKS + IN_RANGE +
+        "GROUP BY r.student_id, f.food_item_id) per_student " + PER_GRADE + ") grades) ranked " + TOTALS +
+        "JOIN food_items i ON i.id = ranked.grouping_key " +
+        "WHERE ranked.item_rank <= :limit " +
+        "ORDER BY classGrade, itemRank")
+    List<FoodStatsRow> aggregateItems(@Param("from") LocalDate from,
+                                      @Param("to") LocalDate to,
+                                      @Param("classGrade") String classGrade,
+                                      @Param("meal") Integer meal,
+                                      @Param("limit") int limit);
+
+    // Same per category; items without one are grouped under a null category. Several items of a
+    // routine can share a category, so routines are first reduced to one row per category
+    @Query(nativeQuery = true, value = SELECT_RANKED +
+        "CAST(NULL AS BIGINT) AS foodItemId, CAST(NULL AS VARCHAR) AS name, ranked.grouping_key AS category " +
+        "FROM (" + RANK +
+        "FROM (SELECT student_id, grouping_key, COUNT(*) AS routines " +
+        "FROM (SELECT r.student_id, i.category AS grouping_key " + LINKS +
+        "JOIN food_items i ON i.id = f.food_item_id " + IN_RANGE +
+        "GROUP BY r.id, r.student_id, i.category) routine_categories " +
+        "GROUP BY student_id, grouping_key) per_student " + PER_GRADE + ") grades) ranked " + TOTALS +
+        "WHERE ranked.item_rank <= :limit " +
+        "ORDER BY classGrade, itemRank")
+    List<FoodStatsRow> aggregateCategories(@Param("from") LocalDate from,
+                                           @Param("to") LocalDate to,
+                                           @Param("classGrade") String classGrade,
+                                           @Param("meal") Integer meal,
+                                           @Param("limit") int limit);
+
+    interface FoodStatsRow {
+        String getClassGrade();
+        int getItemRank();
+        Long getFoodItemId();
+        String getName();
+        String getCategory();
+        long getRoutines();
+        long getStudents();
+        double getShare();
+    }
+}
@@ -0,0 +1,84 @@
+package com.dailyroutine.repository;
+
+import com.dailyroutine.entity.RoutineSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RoutineSummaryRepository extends JpaRepository<RoutineSummary, Long> {
+    List<RoutineSummary> findByStudentIdAndPeriodTypeOrderByPeriodStartDesc(Long studentId,
+                                                                           RoutineSummary.PeriodType periodType,
+                                                                           Pageable pageable);
+
+    List<RoutineSummary> findByStudentIdInAndPeriodTypeAndPeriodStartIn(Collection<Long> studentIds,
+                                                                        RoutineSummary.PeriodType periodType,
+                                                                        Collection<LocalDate> periodStarts);
+
+    @Modifying
+    @Query("DELETE FROM RoutineSummary s WHERE s.studentId = :studentId")
+    void deleteByStudentId(@Param("studentId") Long studentId);
+
+    // Recomputes period aggregates from daily_routines; periodType is WEEK (ISO weeks) or MONTH
+    @Query(nativeQuery = true, value =
+        "SELECT r.student_id AS studentId, " +
+        "CASE :periodType WHEN 'WEEK' THEN CAST(DATE_TRUNC('ISO_WEEK', r.routine_date) AS DATE) " +
+        "                 ELSE CAST(DATE_TRUNC('MONTH', r.routine_date) AS DATE) END AS periodStart, " +
+        "COUNT(*) AS routineCount, " +
+        "CAST(SUM(CASE :periodType WHEN 'WEEK' THEN POWER(2, ISO_DAY_OF_WEEK(r.routine_date) - 1) " +
+        "                          ELSE POWER(2, DAY_OF_MONTH(r.routine_date) - 1) END) AS BIGINT) AS loggedDaysMask, " +
+        "COALESCE(SUM(r.screen_time_minutes), 0) AS screenTimeTotal, " +
+        "COUNT(r.screen_time_minutes) AS screenTimeEntries, " +
+        "COALESCE(SUM(r.study_time_minutes), 0) AS studyTimeTotal, " +
+        "COUNT(r.study_time_minutes) AS studyTimeEntries, " +
+        "COALESCE(SUM(HOUR(r.wake_up_time) * 60 + MINUTE(r.wake_up_time)), 0) AS wakeUpMinutesTotal, " +
+        "COALESCE(SUM(CAST(HOUR(r.wake_up_time) * 60 + MINUTE(r.wake_up_time) AS BIGINT) " +
+        "           * (HOUR(r.wake_up_time) * 60 + MINUTE(r.wake_up_time))), 0) AS wakeUpMinutesSquares, " +
+        "COUNT(r.wake_up_time) AS wakeUpEntries, " +
+        "COALESCE(SUM(" + SLEEP_MINUTES + "), 0) AS sleepMinutesTotal, " +
+        "COALESCE(SUM(CAST(" + SLEEP_MINUTES + " AS BIGINT) * (" + SLEEP_MINUTES + ")), 0) AS sleepMinutesSquares, " +
+        "COUNT(r.sleep_time) AS sleepEntries, " +
+        "SUM(CASE WHEN r.behavior_at_home = 'EXCELLENT' THEN 1 ELSE 0 END) AS excellentCount, " +
+        "SUM(CASE WHEN r.behavior_at_home = 'GOOD' THEN 1 ELSE 0 END) AS goodCount, " +
+        "SUM(CASE WHEN r.behavior_at_home = 'AVERAGE' THEN 1 ELSE 0 END) AS averageCount, " +
+        "SUM(CASE WHEN r.behavior_at_home = 'NEEDS_IMPROVEMENT' THEN 1 ELSE 0 END) AS needsImprovementCount, " +
+        "COUNT(r.admin_feedback) AS feedbackCount " +
+        "FROM daily_routines r " +
+        "WHERE r.student_id IN (:studentIds) AND r.routine_date BETWEEN :from AND :to " +
+        "GROUP BY r.student_id, periodStart")
+    List<PeriodAggregate> aggregatePeriods(@Param("periodType") String periodType,
+                                           @Param("studentIds") Collection<Long> studentIds,
+                                           @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to);
+
+    String SLEEP_MINUTES = "CASE WHEN HOUR(r.sleep_time) < 12 THEN 1440 ELSE 0 END " +
+        "+ HOUR(r.sleep_time) * 60 + MINUTE(r.sleep_time)";
+
+    interface PeriodAggregate {
+        Long getStudentId();
+        LocalDate getPeriodStart();
+        long getRoutineCount();
+        long getLoggedDaysMask();
+        long getScreenTimeTotal();
+        long getScreenTimeEntries();
+        long getStudyTimeTotal();
+        long getStudyTimeEntries();
+        long getWakeUpMinutesTotal();
+        long getWakeUpMinutesSquares();
+        long getWakeUpEntries();
+        long getSleepMinutesTotal();
+        long getSleepMinutesSquares();
+        long getSleepEntries();
+        long getExcellentCount();
+        long getGoodCount();
+        long getAverageCount();
+        long getNeedsImprovementCount();
+        long getFeedbackCount();
+    }
+}
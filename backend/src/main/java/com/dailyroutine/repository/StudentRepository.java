@@ -1,13 +1,66 @@
 package com.dailyroutine.repository;
 
+import com.dailyroutine.dto.StudentView;
+import com.dailyroutine.dto.VersionStamp;
 import com.dailyroutine.entity.Student;
 import com.dailyroutine.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
     List<Student> findByParent(User parent);
     List<Student> findByParentId(Long parentId);
-}
\ No newline at end of file
+
+    boolean existsByIdAndParentId(Long id, Long parentId);
+
+    @EntityGraph(attributePaths = "parent")
+    Optional<Student> findWithParentById(Long id);
+
+    @Query("SELECT new com.dailyroutine.dto.VersionStamp(COUNT(s), SUM(s.version), MAX(s.updatedAt)) " +
+           "FROM Student s")
+    VersionStamp findRosterVersion();
+
+    @Query("SELECT new com.dailyroutine.dto.VersionStamp(COUNT(s), SUM(s.version), MAX(s.updatedAt)) " +
+           "FROM Student s WHERE s.parent.id = :parentId")
+    VersionStamp findRosterVersionByParentId(@Param("parentId") Long parentId);
+
+    @Query("SELECT new com.dailyroutine.dto.VersionStamp(COUNT(s), SUM(s.version), MAX(s.updatedAt)) " +
+           "FROM Student s WHERE s.id = :id")
+    VersionStamp findVersionById(@Param("id") Long id);
+
+    @Query(StudentView.SELECT + "ORDER BY s.id")
+    List<StudentView> findAllViews();
+
+    @Query(StudentView.SELECT + "WHERE p.id = :parentId ORDER BY s.id")
+    List<StudentView> findViewsByParentId(@Param("parentId") Long parentId);
+
+    @Query(StudentView.SELECT + "WHERE s.id IN :ids")
+    List<StudentView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.id FROM Student s WHERE s.classGrade = :classGrade")
+    List<Long> findIdsByClassGrade(@Param("classGrade") String classGrade);
+
+    // The parent's children with today's logging status and the routines still without feedback
+    @Query("SELECT s.id AS id, s.name AS name, s.classGrade AS classGrade, " +
+           "SUM(CASE WHEN r.routineDate = :today THEN 1 ELSE 0 END) AS loggedToday, " +
+           "SUM(CASE WHEN r.id IS NOT NULL AND r.adminFeedback IS NULL THEN 1 ELSE 0 END) AS pendingFeedback " +
+           "FROM Student s LEFT JOIN s.routines r WHERE s.parent.id = :parentId " +
+           "GROUP BY s.id, s.name, s.classGrade ORDER BY s.id")
+    List<FeedRow> findFeedRowsByParentId(@Param("parentId") Long parentId, @Param("today") LocalDate today);
+
+    interface FeedRow {
+        Long getId();
+        String getName();
+        String getClassGrade();
+        long getLoggedToday();
+        long getPendingFeedback();
+    }
+}
@@ -0,0 +1,107 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.dto.CohortStats;
+import com.dailyroutine.dto.FoodStats;
+import com.dailyroutine.entity.DailyRoutine;
+import com.dailyroutine.entity.FoodItem;
+import com.dailyroutine.repository.DailyRoutineRepository;
+import com.dailyroutine.repository.DailyRoutineRepository.CohortStatsRow;
+import com.dailyroutine.repository.FoodItemRepository;
+import com.dailyroutine.repository.FoodItemRepository.FoodStatsRow;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class AnalyticsService {
+
+    public static final int MAX_RANGE_DAYS = 366;
+    public static final int DEFAULT_FOOD_LIMIT = 10;
+    public static final int MAX_FOOD_LIMIT = 100;
+
+    private final DailyRoutineRepository routineRepository;
+    private final FoodItemRepository foodItemRepository;
+    private final RoutineMetricsSnapshot metricsSnapshot;
+
+    public AnalyticsService(DailyRoutineRepository routineRepository, FoodItemRepository foodItemRepository,
+                            RoutineMetricsSnapshot metricsSnapshot) {
+        this.routineRepository = routineRepository;
+        this.foodItemRepository = foodItemRepository;
+        this.metricsSnapshot = metricsSnapshot;
+    }
+
+    /**
+     * Served from {@link RoutineMetricsSnapshot} once it has loaded, and by the equivalent SQL
+     * aggregate until then.
+     */
+    public List<CohortStats> getCohortStats(LocalDate from, LocalDate to, CohortStats.Bucket bucket, String classGrade) {
+        validateRange(from, to);
+        if (metricsSnapshot.isReady()) {
+            return metricsSnapshot.cohorts(from, to, bucket, classGrade);
+        }
+        return routineRepository.aggregateCohorts(bucket.name(), from, to, classGrade).stream()
+            .map(this::toStats)
+            .toList();
+    }
+
+    /**
+     * The most eaten food items, or categories, per class grade; {@code meal} null counts every meal.
+     */
+    public List<FoodStats> getFoodStats(LocalDate from, LocalDate to, String classGrade, DailyRoutine.Meal meal,
+                                        FoodStats.GroupBy groupBy, Integer limit) {
+        validateRange(from, to);
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        int top = limit == null ? DEFAULT_FOOD_LIMIT : Math.min(limit, MAX_FOOD_LIMIT);
+        Integer mealBit = meal != null ? meal.bit() : null;
+        List<FoodStatsRow> rows = groupBy == FoodStats.GroupBy.CATEGORY
+            ? foodItemRepository.aggregateCategories(from, to, classGrade, mealBit, top)
+            : foodItemRepository.aggregateItems(from, to, classGrade, mealBit, top);
+        return rows.stream()
+            .map(row -> new FoodStats(
+                row.getClassGrade(),
+                row.getItemRank(),
+                row.getFoodItemId(),
+                row.getName(),
+                row.getCategory() != null ? FoodItem.Category.valueOf(row.getCategory()) : null,
+                row.getRoutines(),
+                row.getStudents(),
+                row.getShare()))
+            .toList();
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private CohortStats toStats(CohortStatsRow row) {
+        Map<DailyRoutine.Behavior, Long> behavior = new EnumMap<>(DailyRoutine.Behavior.class);
+        behavior.put(DailyRoutine.Behavior.EXCELLENT, row.getExcellent());
+        behavior.put(DailyRoutine.Behavior.GOOD, row.getGood());
+        behavior.put(DailyRoutine.Behavior.AVERAGE, row.getAverage());
+        behavior.put(DailyRoutine.Behavior.NEEDS_IMPROVEMENT, row.getNeedsImprovement());
+
+        return new CohortStats(
+            row.getBucketStart(),
+            row.getClassGrade(),
+            row.getRoutines(),
+            row.getStudents(),
+            new CohortStats.MetricSummary(row.getAvgScreenTime(), row.getP50ScreenTime(), row.getP90ScreenTime()),
+            new CohortStats.MetricSummary(row.getAvgStudyTime(), row.getP50StudyTime(), row.getP90StudyTime()),
+            new CohortStats.MetricSummary(row.getAvgWakeUp(), row.getP50WakeUp(), row.getP90WakeUp()),
+            new CohortStats.MetricSummary(row.getAvgSleep(), row.getP50Sleep(), row.getP90Sleep()),
+            behavior,
+            row.getBehaviorNotRecorded()
+        );
+    }
+}
@@ -1,12 +1,10 @@
 package com.dailyroutine.service;
 
 import com.dailyroutine.config.JwtUtil;
+import com.dailyroutine.config.Tenants;
 import com.dailyroutine.entity.User;
 import com.dailyroutine.repository.UserRepository;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -16,40 +14,67 @@ import java.util.Map;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final PasswordHasher passwordHasher;
+    private final RefreshTokenService refreshTokenService;
     private final JwtUtil jwtUtil;
+    private final UserCache userCache;
+    private final Tenants tenants;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder,
-                      AuthenticationManager authenticationManager, UserDetailsServiceImpl userDetailsService,
-                      JwtUtil jwtUtil) {
+    public AuthService(UserRepository userRepository, PasswordHasher passwordHasher,
+                      RefreshTokenService refreshTokenService, JwtUtil jwtUtil, UserCache userCache,
+                      Tenants tenants) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
-        this.authenticationManager = authenticationManager;
-        this.userDetailsService = userDetailsService;
+        this.passwordHasher = passwordHasher;
+        this.refreshTokenService = refreshTokenService;
         this.jwtUtil = jwtUtil;
+        this.userCache = userCache;
+        this.tenants = tenants;
     }
 
+    /**
+     * Verifies the password against a single user lookup and issues an access and refresh token.
+     *
+     * @throws BadCredentialsException if the username or password is wrong
+     * @throws java.util.concurrent.RejectedExecutionException if password hashing is saturated
+     */
     public Map<String, Object> login(String username, String password) {
-        authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(username, password)
-        );
+        User user = userRepository.findByUsername(username).orElse(null);
+        boolean matches = user != null
+            ? passwordHasher.matches(password, user.getPassword())
+            : passwordHasher.matchesAbsentUser(password);
+        if (!matches) {
+            throw new BadCredentialsException("Invalid credentials");
+        }
+        return tokens(refreshTokenService.issue(user));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a successor refresh token.
+     *
+     * @throws BadCredentialsException if the refresh token is unknown, expired or already used
+     */
+    public Map<String, Object> refresh(String refreshToken) {
+        return tokens(refreshTokenService.rotate(refreshToken));
+    }
+
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        String token = jwtUtil.generateToken(userDetails);
-        
-        User user = userRepository.findByUsername(username).orElseThrow();
-        
+    private Map<String, Object> tokens(RefreshTokenService.Issued issued) {
+        User user = issued.user();
         Map<String, Object> response = new HashMap<>();
-        response.put("token", token);
+        String tenant = tenants.current();
+        response.put("token", jwtUtil.generateToken(user.getUsername(), user.getRole().name(), tenant));
+        response.put("tenant", tenant);
+        response.put("expiresIn", jwtUtil.getExpirationMillis() / 1000);
+        response.put("refreshToken", issued.token());
         response.put("user", Map.of(
             "id", user.getId(),
             "username", user.getUsername(),
             "email", user.getEmail(),
             "role", user.getRole()
         ));
-        
         return response;
     }
 
@@ -61,7 +86,9 @@ public class AuthService {
             throw new RuntimeException("Email already exists");
         }
 
-        User user = new User(username, passwordEncoder.encode(password), email, role);
-        return userRepository.save(user);
+        User user = new User(username, passwordHasher.encode(password), email, role);
+        User saved = userRepository.save(user);
+        userCache.evict(username);
+        return saved;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.config.AuthenticatedUser;
+import com.dailyroutine.entity.User;
+import com.dailyroutine.repository.UserRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single entry point for services that need the caller of the current request.
+ */
+@Service
+public class CurrentUserService {
+
+    private final UserRepository userRepository;
+
+    public CurrentUserService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public AuthenticatedUser get() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new IllegalStateException("No authenticated user in the current request");
+        }
+        return user;
+    }
+
+    /**
+     * Returns an uninitialized reference to the caller's {@link User} row, suitable for
+     * setting associations without issuing a select.
+     */
+    public User reference() {
+        return userRepository.getReferenceById(get().id());
+    }
+}
@@ -0,0 +1,175 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.config.TenantContext;
+import com.dailyroutine.config.Tenants;
+import com.dailyroutine.dto.FoodItemView;
+import com.dailyroutine.entity.DailyRoutine;
+import com.dailyroutine.entity.FoodItem;
+import com.dailyroutine.repository.FoodItemRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps {@code routine_food_items} in step with the meal text of saved routines. Each item is
+ * looked up by its normalized name in a cache of the dictionary; only items the cache has not
+ * seen cost a query, and only items nobody has written before cost an insert. Every tenant has
+ * its own dictionary and cache.
+ */
+@Service
+public class FoodCatalog {
+
+    private static final String DELETE_LINKS = "DELETE FROM routine_food_items WHERE routine_id = ?";
+    private static final String INSERT_LINK =
+        "INSERT INTO routine_food_items (routine_id, food_item_id, meals) VALUES (?, ?, ?)";
+    private static final int[] LINK_TYPES = {Types.BIGINT, Types.BIGINT, Types.TINYINT};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FoodItemRepository foodItemRepository;
+    private final Tenants tenants;
+    private final long cacheSize;
+    private final Map<String, Cache<String, Long>> idsByName = new HashMap<>();
+
+    public FoodCatalog(JdbcTemplate jdbcTemplate,
+                       FoodItemRepository foodItemRepository,
+                       Tenants tenants,
+                       @Value("${food-catalog.cache-size:10000}") long cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.foodItemRepository = foodItemRepository;
+        this.tenants = tenants;
+        this.cacheSize = cacheSize;
+        for (String tenant : tenants.ids()) {
+            // Items are never renamed or deleted, so entries only leave the cache to stay within its size
+            idsByName.put(tenant, Caffeine.newBuilder().maximumSize(cacheSize).<String, Long>build());
+        }
+    }
+
+    public List<FoodItemView> getItems() {
+        return foodItemRepository.findAllViews();
+    }
+
+    @Transactional
+    public FoodItemView setCategory(Long id, FoodItem.Category category) {
+        FoodItem item = foodItemRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Food item not found with id: " + id));
+        item.setCategory(category);
+        return FoodItemView.from(foodItemRepository.save(item));
+    }
+
+    // Loads the dictionary up to the cache size, so saves after a restart don't each look up their items
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (String tenant : tenants.ids()) {
+            Cache<String, Long> cache = idsByName.get(tenant);
+            TenantContext.run(tenant, () ->
+                jdbcTemplate.query("SELECT id, normalized_name FROM food_items ORDER BY id LIMIT ?",
+                    rs -> { cache.put(rs.getString(2), rs.getLong(1)); }, cacheSize));
+        }
+    }
+
+    /**
+     * Links the food items parsed from the current meal text of {@code created} routines, which
+     * have no links yet, and of {@code changed} ones, whose previous links are dropped first.
+     * The routines must already be flushed, since the links reference their rows.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void linkItems(Collection<DailyRoutine> created, Collection<DailyRoutine> changed) {
+        if (created.isEmpty() && changed.isEmpty()) {
+            return;
+        }
+        List<DailyRoutine> routines = new ArrayList<>(created);
+        routines.addAll(changed);
+        Map<String, String> names = new HashMap<>();
+        List<Link> links = new ArrayList<>();
+        for (DailyRoutine routine : routines) {
+            for (FoodItemParser.Item item : FoodItemParser.parse(
+                    routine.getBreakfastItems(), routine.getLunchItems(), routine.getDinnerItems())) {
+                names.putIfAbsent(item.normalizedName(), item.name());
+                links.add(new Link(routine.getId(), item.normalizedName(), item.meals()));
+            }
+        }
+        Map<String, Long> ids = resolve(names);
+
+        if (!changed.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_LINKS,
+                changed.stream().map(routine -> new Object[] {routine.getId()}).toList(), new int[] {Types.BIGINT});
+        }
+        if (!links.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_LINK, links.stream()
+                .map(link -> new Object[] {link.routineId(), ids.get(link.normalizedName()), link.meals()})
+                .toList(), LINK_TYPES);
+        }
+    }
+
+    // normalized name -> display name in, normalized name -> id out
+    private Map<String, Long> resolve(Map<String, String> names) {
+        Cache<String, Long> cache = idsByName.get(tenants.current());
+        Map<String, Long> ids = new HashMap<>(cache.getAllPresent(names.keySet()));
+        Set<String> missing = new HashSet<>(names.keySet());
+        missing.removeAll(ids.keySet());
+        if (missing.isEmpty()) {
+            return ids;
+        }
+
+        Map<String, Long> existing = load(missing);
+        cache.putAll(existing);
+        ids.putAll(existing);
+        missing.removeAll(existing.keySet());
+        if (missing.isEmpty()) {
+            return ids;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (String normalized : missing) {
+            try {
+                jdbcTemplate.update("INSERT INTO food_items (name, normalized_name, created_at) SELECT ?, ?, ? " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM food_items WHERE normalized_name = ?)",
+                    names.get(normalized), normalized, now, normalized);
+            } catch (DuplicateKeyException e) {
+                // A concurrent save added the same item first; its row is read back below
+            }
+        }
+        Map<String, Long> created = load(missing);
+        ids.putAll(created);
+        // A rollback would take the new rows with it, so they are only shared once committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.putAll(created);
+            }
+        });
+        return ids;
+    }
+
+    private Map<String, Long> load(Set<String> normalizedNames) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, normalized_name FROM food_items WHERE normalized_name IN (" +
+                String.join(", ", Collections.nCopies(normalizedNames.size(), "?")) + ")",
+            rs -> { ids.put(rs.getString(2), rs.getLong(1)); },
+            normalizedNames.toArray());
+        return ids;
+    }
+
+    private record Link(Long routineId, String normalizedName, int meals) {}
+}
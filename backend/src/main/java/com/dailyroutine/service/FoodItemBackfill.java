@@ -0,0 +1,72 @@
+package com.dailyroutine.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills {@code routine_food_items} for routines written without going through {@link FoodCatalog}:
+ * those that existed before the catalog (migration V4_1) and the seeder's bulk inserts. Routines
+ * are read in id order in chunks of {@code batchSize} and their links written as one JDBC batch
+ * per chunk, so the whole table is never held in memory.
+ */
+public final class FoodItemBackfill {
+
+    private static final String SELECT_ROUTINES =
+        "SELECT id, breakfast_items, lunch_items, dinner_items FROM daily_routines WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String INSERT_LINK =
+        "INSERT INTO routine_food_items (routine_id, food_item_id, meals) VALUES (?, ?, ?)";
+    private static final int[] LINK_TYPES = {Types.BIGINT, Types.BIGINT, Types.TINYINT};
+
+    private FoodItemBackfill() {}
+
+    /** Links every routine with an id above {@code afterRoutineId}; returns the number of routines read. */
+    public static long run(JdbcTemplate jdbcTemplate, long afterRoutineId, int batchSize) {
+        Map<String, Long> dictionary = new HashMap<>();
+        jdbcTemplate.query("SELECT id, normalized_name FROM food_items",
+            rs -> { dictionary.put(rs.getString(2), rs.getLong(1)); });
+
+        long lastId = afterRoutineId;
+        long routines = 0;
+        List<Object[]> links = new ArrayList<>();
+        while (true) {
+            List<String[]> chunk = new ArrayList<>(batchSize);
+            List<Long> ids = new ArrayList<>(batchSize);
+            jdbcTemplate.query(SELECT_ROUTINES, rs -> {
+                ids.add(rs.getLong(1));
+                chunk.add(new String[] {rs.getString(2), rs.getString(3), rs.getString(4)});
+            }, lastId, batchSize);
+            if (ids.isEmpty()) {
+                return routines;
+            }
+
+            links.clear();
+            for (int i = 0; i < ids.size(); i++) {
+                String[] meals = chunk.get(i);
+                for (FoodItemParser.Item item : FoodItemParser.parse(meals[0], meals[1], meals[2])) {
+                    Long itemId = dictionary.computeIfAbsent(item.normalizedName(),
+                        normalized -> insertItem(jdbcTemplate, item));
+                    links.add(new Object[] {ids.get(i), itemId, item.meals()});
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_LINK, links, LINK_TYPES);
+            routines += ids.size();
+            lastId = ids.get(ids.size() - 1);
+        }
+    }
+
+    // The guard lets a request that saved the same new item first win rather than fail the backfill
+    private static Long insertItem(JdbcTemplate jdbcTemplate, FoodItemParser.Item item) {
+        jdbcTemplate.update("INSERT INTO food_items (name, normalized_name, created_at) SELECT ?, ?, ? " +
+                "WHERE NOT EXISTS (SELECT 1 FROM food_items WHERE normalized_name = ?)",
+            item.name(), item.normalizedName(), Timestamp.valueOf(LocalDateTime.now()), item.normalizedName());
+        return jdbcTemplate.queryForObject("SELECT id FROM food_items WHERE normalized_name = ?",
+            Long.class, item.normalizedName());
+    }
+}
@@ -0,0 +1,68 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.entity.DailyRoutine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Splits the free text of a routine's meals into food items: {@code "Bread, egg & juice"} is
+ * Bread, egg and juice. Items are matched on their normalized form, so "Milk" and " milk." are
+ * the same item.
+ */
+public final class FoodItemParser {
+
+    // Past this a meal is prose rather than a list of foods
+    public static final int MAX_ITEMS_PER_MEAL = 20;
+    public static final int MAX_NAME_LENGTH = 100;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[,;/&+\\r\\n]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Bullets and sentence punctuation around an item
+    private static final Pattern EDGE_PUNCTUATION = Pattern.compile("^[\\s\\-*.•]+|[\\s\\-*.!]+$");
+
+    private FoodItemParser() {}
+
+    /** One item of a routine; {@code meals} has {@link DailyRoutine.Meal#bit()} set for each meal it was in. */
+    public record Item(String name, String normalizedName, int meals) {}
+
+    /**
+     * Items of the three meals in the order first written, each once. The spelling of the first
+     * mention is kept. Null or blank meals contribute nothing.
+     */
+    public static List<Item> parse(String breakfast, String lunch, String dinner) {
+        Map<String, Item> items = new LinkedHashMap<>();
+        add(items, breakfast, DailyRoutine.Meal.BREAKFAST);
+        add(items, lunch, DailyRoutine.Meal.LUNCH);
+        add(items, dinner, DailyRoutine.Meal.DINNER);
+        return new ArrayList<>(items.values());
+    }
+
+    private static void add(Map<String, Item> items, String text, DailyRoutine.Meal meal) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        int count = 0;
+        for (String part : SEPARATORS.split(text)) {
+            String name = clean(part);
+            if (name.isEmpty()) {
+                continue;
+            }
+            String normalized = name.toLowerCase(Locale.ROOT);
+            items.merge(normalized, new Item(name, normalized, meal.bit()),
+                (first, again) -> new Item(first.name(), normalized, first.meals() | again.meals()));
+            if (++count == MAX_ITEMS_PER_MEAL) {
+                return;
+            }
+        }
+    }
+
+    private static String clean(String part) {
+        String name = EDGE_PUNCTUATION.matcher(WHITESPACE.matcher(part).replaceAll(" ")).replaceAll("");
+        return name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH).trim() : name;
+    }
+}
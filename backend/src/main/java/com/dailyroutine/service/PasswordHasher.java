@@ -0,0 +1,166 @@
+package com.dailyroutine.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs BCrypt on a small fixed pool instead of the request threads. BCrypt is deliberately
+ * CPU-bound, so a login burst would otherwise occupy every worker and stall unrelated requests.
+ * Work beyond the pool waits in a bounded queue. A call fails with {@link RejectedExecutionException}
+ * so the client can back off and retry when the queue is full, when the expected wait (queue
+ * length times the recent hashing time) already exceeds the timeout, or when the timeout passes.
+ * Turning callers away up front matters on a busy CPU: a hash that only finishes after its
+ * caller gave up is wasted work, and enough of those leave no capacity for anyone.
+ */
+@Component
+public class PasswordHasher implements MeterBinder {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor pool;
+    private final long timeoutMillis;
+    private final AtomicLong rejected = new AtomicLong();
+    // Moving average of one hash, wall clock, so it reflects CPU contention
+    private final AtomicLong averageNanos = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    // Checked against when the username is unknown so response time doesn't reveal which users exist
+    private final String absentUserHash;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${password-hashing.threads:0}") int threads,
+                          @Value("${password-hashing.queue-capacity:32}") int queueCapacity,
+                          @Value("${password-hashing.timeout:3s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeout.toMillis();
+        long started = System.nanoTime();
+        this.absentUserHash = passwordEncoder.encode("absent-user");
+        this.averageNanos.set(System.nanoTime() - started);
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /** Spends the same work as {@link #matches} for a user that does not exist; always false. */
+    public boolean matchesAbsentUser(CharSequence rawPassword) {
+        run(() -> passwordEncoder.matches(rawPassword, absentUserHash));
+        return false;
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public int getPoolSize() {
+        return pool.getMaximumPoolSize();
+    }
+
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    public int getQueuedCount() {
+        return pool.getQueue().size();
+    }
+
+    public long getCompletedCount() {
+        return pool.getCompletedTaskCount();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.get();
+    }
+
+    public long getAverageHashNanos() {
+        return averageNanos.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("password.hashing.threads", this, PasswordHasher::getPoolSize).register(registry);
+        Gauge.builder("password.hashing.active", this, PasswordHasher::getActiveCount).register(registry);
+        Gauge.builder("password.hashing.queued", this, PasswordHasher::getQueuedCount).register(registry);
+        Gauge.builder("password.hashing.average", this, hasher -> hasher.getAverageHashNanos() / 1e9)
+                .baseUnit("seconds").register(registry);
+        FunctionCounter.builder("password.hashing.completed", this, PasswordHasher::getCompletedCount).register(registry);
+        FunctionCounter.builder("password.hashing.rejected", this, PasswordHasher::getRejectedCount).register(registry);
+        FunctionCounter.builder("password.hashing.timed.out", this, PasswordHasher::getTimedOutCount).register(registry);
+    }
+
+    private <T> T run(Callable<T> task) {
+        long ahead = pool.getQueue().size() + pool.getActiveCount();
+        long expectedWaitMillis = ahead * averageNanos.get() / pool.getMaximumPoolSize() / 1_000_000;
+        if (expectedWaitMillis > timeoutMillis) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Password hashing backlog is " + expectedWaitMillis + "ms");
+        }
+        Future<T> future;
+        try {
+            future = pool.submit(() -> timed(task));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Password hashing queue is full", e);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // A still-queued task is skipped by the pool once cancelled
+            future.cancel(false);
+            timedOut.incrementAndGet();
+            throw new RejectedExecutionException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private <T> T timed(Callable<T> task) throws Exception {
+        long started = System.nanoTime();
+        try {
+            return task.call();
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            averageNanos.getAndUpdate(average -> average + (elapsed - average) / 8);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,117 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.config.TenantContext;
+import com.dailyroutine.config.Tenants;
+import com.dailyroutine.entity.RefreshToken;
+import com.dailyroutine.entity.User;
+import com.dailyroutine.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens. An exchange costs one indexed lookup and two writes,
+ * against a BCrypt verification for a full login.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    public record Issued(String token, User user) {}
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Tenants tenants;
+    private final Duration lifetime;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               TransactionTemplate transactionTemplate,
+                               Tenants tenants,
+                               @Value("${jwt.refresh.expiration:30d}") Duration lifetime) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tenants = tenants;
+        this.lifetime = lifetime;
+    }
+
+    public Issued issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Revokes the presented token and issues its successor.
+     *
+     * @throws BadCredentialsException if the token is unknown, expired or already used
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Issued rotate(String token) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+        if (current.getRevokedAt() != null || refreshTokenRepository.revoke(current.getId(), now) == 0) {
+            // Someone else holds a copy of this chain; end it for both parties
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            if (revoked > 0) {
+                log.warn("Refresh token reuse for user {}; revoked {} token(s)", current.getUser().getUsername(), revoked);
+            }
+            throw new BadCredentialsException("Refresh token already used");
+        }
+        return issue(current.getUser(), current.getFamilyId());
+    }
+
+    /** Ends the session the token belongs to. Unknown tokens are ignored. */
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token)).ifPresent(current ->
+                refreshTokenRepository.revokeFamily(current.getFamilyId(), LocalDateTime.now()));
+    }
+
+    // The tenant has to be set before each transaction starts, since it picks the connection
+    @Scheduled(fixedRateString = "${jwt.refresh.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        for (String tenant : tenants.ids()) {
+            int purged = TenantContext.call(tenant, () -> transactionTemplate.execute(status ->
+                refreshTokenRepository.deleteExpired(LocalDateTime.now())));
+            if (purged > 0) {
+                log.info("Purged {} expired refresh token(s) for tenant {}", purged, tenant);
+            }
+        }
+    }
+
+    private Issued issue(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(hash(token), familyId, user, LocalDateTime.now().plus(lifetime)));
+        return new Issued(token, user);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
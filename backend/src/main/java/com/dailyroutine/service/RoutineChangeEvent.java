@@ -0,0 +1,31 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.dto.RoutineMetrics;
+import com.dailyroutine.dto.RoutineSearchDocument;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.LocalDate;
+
+/**
+ * Published by {@link RoutineService} inside the writing transaction and delivered to SSE
+ * subscribers by {@link RoutineEventHub} once that transaction commits. {@link RoutineSearchIndex}
+ * reindexes the routine from {@code document} and {@link RoutineMetricsSnapshot} updates it from
+ * {@code metrics}; subscribers see neither.
+ */
+public record RoutineChangeEvent(
+    Type type,
+    Long routineId,
+    Long studentId,
+    Long parentId,
+    LocalDate routineDate,
+    String adminFeedback,
+    @JsonIgnore RoutineSearchDocument document,
+    @JsonIgnore RoutineMetrics metrics
+) {
+    public enum Type {
+        SAVED, DELETED, FEEDBACK;
+
+        public String eventName() {
+            return "routine." + name().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.config.AuthenticatedUser;
+import com.dailyroutine.config.Tenants;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of {@link RoutineChangeEvent}s to Server-Sent Event subscribers.
+ *
+ * <p>Connections are servlet-async, so an idle subscriber holds no thread. Each subscriber
+ * has a small bounded queue drained by a shared dispatch pool; one that falls behind is
+ * disconnected rather than allowed to stall publishers, and can resume from the replay
+ * buffer by reconnecting with {@code Last-Event-ID}. Parents only receive events for their
+ * own children, admins receive everything. Each tenant is a separate channel with its own
+ * subscribers, event ids and replay buffer.
+ */
+@Component
+public class RoutineEventHub {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutineEventHub.class);
+
+    private final Duration connectionTimeout;
+    private final int maxSubscribers;
+    private final int queueCapacity;
+    private final int replaySize;
+    private final ExecutorService dispatcher;
+    private final Tenants tenants;
+
+    private final Map<String, Channel> channels = new HashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public RoutineEventHub(Tenants tenants,
+                           @Value("${events.connection-timeout:30m}") Duration connectionTimeout,
+                           @Value("${events.max-subscribers:10000}") int maxSubscribers,
+                           @Value("${events.queue-capacity:64}") int queueCapacity,
+                           @Value("${events.replay-size:1000}") int replaySize,
+                           @Value("${events.dispatch-threads:4}") int dispatchThreads,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.connectionTimeout = connectionTimeout;
+        this.maxSubscribers = maxSubscribers;
+        this.queueCapacity = queueCapacity;
+        this.replaySize = replaySize;
+        this.tenants = tenants;
+        for (String tenant : tenants.ids()) {
+            channels.put(tenant, new Channel());
+        }
+        if (virtualThreads) {
+            // A subscriber has at most one drain task queued, so a thread per task stays bounded
+            this.dispatcher = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-dispatch-", 0).factory());
+        } else {
+            AtomicInteger threadIndex = new AtomicInteger();
+            this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+                Thread thread = new Thread(runnable, "sse-dispatch-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Opens a stream for {@code user} on the current tenant's channel. When {@code lastEventId} is given, buffered events after
+     * it are replayed first; if they are no longer buffered a {@code reset} event tells the
+     * client to reload its data instead.
+     *
+     * @throws IllegalStateException if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(AuthenticatedUser user, Long lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many event stream subscribers");
+        }
+
+        Channel channel = channels.get(tenants.current());
+        SseEmitter emitter = new SseEmitter(connectionTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(channel, user, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        synchronized (channel.history) {
+            if (user.isAdmin()) {
+                channel.admins.add(subscriber);
+            } else {
+                channel.parents.computeIfAbsent(user.id(), id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+            }
+
+            if (lastEventId != null) {
+                HubEvent oldest = channel.history.peekFirst();
+                boolean gap = lastEventId > channel.lastEventId
+                    || (oldest != null && lastEventId < oldest.id() - 1)
+                    || (oldest == null && lastEventId < channel.lastEventId);
+                if (gap) {
+                    subscriber.offer(SseEmitter.event().id(String.valueOf(channel.lastEventId)).name("reset").data("").build());
+                } else {
+                    for (HubEvent event : channel.history) {
+                        if (event.id() > lastEventId && subscriber.accepts(event)) {
+                            subscriber.offer(event.frame());
+                        }
+                    }
+                }
+            }
+        }
+        subscriber.offer(SseEmitter.event().comment("connected").build());
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onRoutineChange(RoutineChangeEvent change) {
+        Channel channel = channels.get(tenants.current());
+        synchronized (channel.history) {
+            HubEvent event = new HubEvent(++channel.lastEventId, change, encode(channel.lastEventId, change));
+            channel.history.addLast(event);
+            if (channel.history.size() > replaySize) {
+                channel.history.removeFirst();
+            }
+
+            channel.admins.forEach(subscriber -> subscriber.offer(event.frame()));
+            Set<Subscriber> family = channel.parents.get(change.parentId());
+            if (family != null) {
+                family.forEach(subscriber -> subscriber.offer(event.frame()));
+            }
+        }
+    }
+
+    // Keeps proxies from closing idle streams and surfaces dead connections as send failures
+    @Scheduled(fixedRateString = "${events.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> frame = SseEmitter.event().comment("heartbeat").build();
+        for (Channel channel : channels.values()) {
+            channel.admins.forEach(subscriber -> subscriber.offer(frame));
+            channel.parents.values().forEach(family -> family.forEach(subscriber -> subscriber.offer(frame)));
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        if (subscriber.user.isAdmin()) {
+            subscriber.channel.admins.remove(subscriber);
+        } else {
+            subscriber.channel.parents.computeIfPresent(subscriber.user.id(), (id, family) -> {
+                family.remove(subscriber);
+                return family.isEmpty() ? null : family;
+            });
+        }
+    }
+
+    // Frames are built once and shared by every recipient; SseEventBuilder itself is single-use
+    private static Set<DataWithMediaType> encode(long id, RoutineChangeEvent change) {
+        return SseEmitter.event()
+            .id(String.valueOf(id))
+            .name(change.type().eventName())
+            .data(change, MediaType.APPLICATION_JSON)
+            .build();
+    }
+
+    private record HubEvent(long id, RoutineChangeEvent change, Set<DataWithMediaType> frame) {}
+
+    private static final class Channel {
+        private final Set<Subscriber> admins = ConcurrentHashMap.newKeySet();
+        private final Map<Long, Set<Subscriber>> parents = new ConcurrentHashMap<>();
+
+        // Guarded by itself; also serializes publishing so replay and live delivery never interleave
+        private final ArrayDeque<HubEvent> history = new ArrayDeque<>();
+        private long lastEventId;
+    }
+
+    private final class Subscriber {
+        private final Channel channel;
+        private final AuthenticatedUser user;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(Channel channel, AuthenticatedUser user, SseEmitter emitter) {
+            this.channel = channel;
+            this.user = user;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        boolean accepts(HubEvent event) {
+            return user.isAdmin() || user.id().equals(event.change().parentId());
+        }
+
+        void offer(Set<DataWithMediaType> event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                log.debug("Dropping slow event stream subscriber {}", user.username());
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove(this);
+            } finally {
+                draining.set(false);
+                if (!closed.get() && !queue.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+    }
+}
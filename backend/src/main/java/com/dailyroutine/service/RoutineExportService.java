@@ -0,0 +1,173 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.dto.RoutineView;
+import com.dailyroutine.repository.DailyRoutineRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams routines for a date range straight to an output stream. Rows are read through a
+ * forward-only cursor and written as they arrive, so memory use does not grow with the range
+ * and the first bytes leave before the query has finished.
+ */
+@Service
+public class RoutineExportService {
+
+    public static final int MAX_RANGE_DAYS = 366;
+
+    // Pushes rows to the client regularly rather than only when the buffer fills
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final RecordComponent[] COLUMNS = RoutineView.class.getRecordComponents();
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final DailyRoutineRepository routineRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter jsonWriter;
+
+    public RoutineExportService(DailyRoutineRepository routineRepository, JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper) {
+        this.routineRepository = routineRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Flushing is left to the export loop; one flush per row would defeat the buffering
+        this.jsonWriter = objectMapper.writer()
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .withRootValueSeparator("\n");
+    }
+
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    /**
+     * Writes every routine dated {@code from} to {@code to}, oldest first, optionally limited to
+     * one class grade. Holds a database connection until the last row is written.
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDate from, LocalDate to, String classGrade, Format format, OutputStream out) throws IOException {
+        validateRange(from, to);
+        // H2 otherwise materializes the whole result before returning the first row
+        jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION TRUE");
+        try (Stream<RoutineView> rows = routineRepository.streamForExport(from, to, classGrade)) {
+            return format == Format.CSV ? writeCsv(rows.iterator(), out) : writeNdjson(rows.iterator(), out);
+        } finally {
+            // Pooled connections keep session settings
+            jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION FALSE");
+        }
+    }
+
+    private long writeCsv(Iterator<RoutineView> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            writer.write(i == 0 ? "" : ",");
+            writer.write(COLUMNS[i].getName());
+        }
+        writer.write("\r\n");
+        writer.flush();
+
+        long count = 0;
+        while (rows.hasNext()) {
+            RoutineView row = rows.next();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = value(COLUMNS[i], row);
+                if (value != null) {
+                    writeCsvField(writer, value.toString());
+                }
+            }
+            writer.write("\r\n");
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break, doubling inner quotes
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private long writeNdjson(Iterator<RoutineView> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = jsonWriter.createGenerator(out)) {
+            // The response stream belongs to the container
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (rows.hasNext()) {
+                jsonWriter.writeValue(generator, rows.next());
+                // The first row goes out at once so the client sees the download start
+                if (++count % FLUSH_EVERY_ROWS == 1) {
+                    generator.flush();
+                }
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return count;
+    }
+
+    private static Object value(RecordComponent column, RoutineView row) {
+        try {
+            return column.getAccessor().invoke(row);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,914 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.config.TenantContext;
+import com.dailyroutine.config.Tenants;
+import com.dailyroutine.dto.CohortStats;
+import com.dailyroutine.dto.RoutineMetrics;
+import com.dailyroutine.entity.DailyRoutine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented in-memory copy of the routine fields the cohort analytics read: times of day
+ * as minute-of-day, screen and study minutes and behavior, one primitive array per field and
+ * one slot per (student, date). A cohort query scans those arrays on a small worker pool
+ * instead of reading every routine row from the database, so a year of routines aggregates in
+ * milliseconds rather than seconds.
+ *
+ * <p>Loaded from the database on a background thread at startup, then kept current from
+ * {@link RoutineChangeEvent}, {@link StudentGradeChangedEvent} and {@link StudentDeletedEvent}
+ * as their transactions commit. Routines changed while the load is running are re-read once it
+ * has finished, as {@link RoutineSearchIndex} does. Queries hold a read lock for the length of
+ * the scan and writes a write lock, so a query never sees half an update. Each tenant has its own
+ * snapshot, loaded on its own thread; the worker pool is shared.
+ */
+@Component
+public class RoutineMetricsSnapshot implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutineMetricsSnapshot.class);
+
+    private static final String SELECT = "SELECT r.id, r.student_id, s.class_grade, r.routine_date, " +
+        "HOUR(r.wake_up_time) * 60 + MINUTE(r.wake_up_time), HOUR(r.sleep_time) * 60 + MINUTE(r.sleep_time), " +
+        "r.screen_time_minutes, r.study_time_minutes, r.behavior_at_home " +
+        "FROM daily_routines r JOIN students s ON s.id = r.student_id";
+
+    // Markers for a field the routine did not record
+    private static final short NO_TIME = -1;
+    private static final int NO_MINUTES = Integer.MIN_VALUE;
+    private static final byte NO_BEHAVIOR = -1;
+
+    private static final DailyRoutine.Behavior[] BEHAVIORS = DailyRoutine.Behavior.values();
+    private static final int NOON = 12 * 60;
+    private static final int DAY_MINUTES = 24 * 60;
+
+    // Below this a scan is cheaper on the calling thread than handing it out
+    private static final int MIN_SLOTS_PER_TASK = 1 << 16;
+    private static final int RECONCILE_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Tenants tenants;
+    private final ExecutorService workers;
+    private final int parallelism;
+    private final Map<String, TenantSnapshot> snapshots = new HashMap<>();
+    private volatile boolean closed;
+
+    public RoutineMetricsSnapshot(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  Tenants tenants,
+                                  @Value("${analytics.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.tenants = tenants;
+        for (String tenant : tenants.ids()) {
+            snapshots.put(tenant, new TenantSnapshot(tenant));
+        }
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.parallelism, task -> {
+            Thread thread = new Thread(task, "analytics-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Whether the current tenant's snapshot has finished its startup load. */
+    public boolean isReady() {
+        return current().ready;
+    }
+
+    /** Waits for every tenant's startup load; false if one did not succeed within {@code timeout}. */
+    public boolean awaitReady(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (TenantSnapshot snapshot : snapshots.values()) {
+            long remaining = deadline - System.nanoTime();
+            if (!snapshot.loaded.await(remaining, TimeUnit.NANOSECONDS) || !snapshot.ready) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getRoutineCount() {
+        return current().routineCount;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (TenantSnapshot snapshot : snapshots.values()) {
+            Gauge.builder("analytics.snapshot.routines", snapshot, s -> s.routineCount)
+                .tag("tenant", snapshot.tenant).register(registry);
+            Gauge.builder("analytics.snapshot.ready", snapshot, s -> s.ready ? 1 : 0)
+                .tag("tenant", snapshot.tenant).register(registry);
+        }
+    }
+
+    /**
+     * Same result as {@code DailyRoutineRepository.aggregateCohorts}: one entry per bucket and
+     * class grade that has routines, ordered by bucket start and then class grade.
+     *
+     * @throws IllegalStateException while the startup load is still running
+     */
+    public List<CohortStats> cohorts(LocalDate from, LocalDate to, CohortStats.Bucket bucket, String classGrade) {
+        TenantSnapshot snapshot = current();
+        if (!snapshot.ready) {
+            throw new IllegalStateException("Analytics snapshot is still loading");
+        }
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        List<LocalDate> bucketStarts = new ArrayList<>();
+        int[] bucketOfDay = new int[toDay - fromDay + 1];
+        for (int i = 0; i < bucketOfDay.length; i++) {
+            LocalDate start = bucketStart(from.plusDays(i), bucket);
+            if (bucketStarts.isEmpty() || !bucketStarts.get(bucketStarts.size() - 1).equals(start)) {
+                bucketStarts.add(start);
+            }
+            bucketOfDay[i] = bucketStarts.size() - 1;
+        }
+
+        Cohort[] cohorts;
+        List<String> gradeNames;
+        snapshot.lock.readLock().lock();
+        try {
+            Integer gradeFilter = classGrade != null ? snapshot.gradeIndex.get(classGrade) : null;
+            if (classGrade != null && gradeFilter == null) {
+                return List.of();
+            }
+            gradeNames = List.copyOf(snapshot.grades);
+            Scan scan = new Scan(snapshot, fromDay, toDay, bucketOfDay, gradeFilter != null ? gradeFilter : -1,
+                gradeNames.size(), bucketStarts.size() * gradeNames.size(),
+                // A student has one routine per day, so a day's students need no counting
+                bucket == CohortStats.Bucket.DAY ? 0 : snapshot.studentIndex.size());
+            cohorts = scanAll(scan);
+        } finally {
+            snapshot.lock.readLock().unlock();
+        }
+
+        List<Integer> gradeOrder = new ArrayList<>();
+        for (int grade = 0; grade < gradeNames.size(); grade++) {
+            gradeOrder.add(grade);
+        }
+        gradeOrder.sort(Comparator.comparing(gradeNames::get));
+        List<CohortStats> stats = new ArrayList<>();
+        for (int b = 0; b < bucketStarts.size(); b++) {
+            for (int grade : gradeOrder) {
+                Cohort cohort = cohorts[b * gradeNames.size() + grade];
+                if (cohort != null) {
+                    stats.add(cohort.toStats(bucketStarts.get(b), gradeNames.get(grade)));
+                }
+            }
+        }
+        return stats;
+    }
+
+    private static LocalDate bucketStart(LocalDate date, CohortStats.Bucket bucket) {
+        return switch (bucket) {
+            case DAY -> date;
+            case WEEK -> date.with(DayOfWeek.MONDAY);
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    // Caller holds the read lock; each task scans its own slot range into private accumulators
+    private Cohort[] scanAll(Scan scan) {
+        int slotCount = scan.slotCount;
+        int tasks = Math.max(1, Math.min(parallelism, slotCount / MIN_SLOTS_PER_TASK));
+        if (tasks == 1) {
+            return scan.run(0, slotCount);
+        }
+        int perTask = (slotCount + tasks - 1) / tasks;
+        List<Callable<Cohort[]>> ranges = new ArrayList<>();
+        for (int start = 0; start < slotCount; start += perTask) {
+            int rangeStart = start;
+            int rangeEnd = Math.min(slotCount, start + perTask);
+            ranges.add(() -> scan.run(rangeStart, rangeEnd));
+        }
+        try {
+            Cohort[] merged = null;
+            for (Future<Cohort[]> partial : workers.invokeAll(ranges)) {
+                Cohort[] cohorts = partial.get();
+                if (merged == null) {
+                    merged = cohorts;
+                    continue;
+                }
+                for (int i = 0; i < merged.length; i++) {
+                    if (merged[i] == null) {
+                        merged[i] = cohorts[i];
+                    } else if (cohorts[i] != null) {
+                        merged[i].merge(cohorts[i]);
+                    }
+                }
+            }
+            return merged;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while aggregating", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Aggregation failed", e.getCause());
+        }
+    }
+
+    private static final class Scan {
+        private final int slotCount;
+        private final int fromDay;
+        private final int toDay;
+        private final int[] bucketOfDay;
+        private final int gradeFilter;
+        private final int gradeCount;
+        private final int cohortCount;
+        private final int studentCount;
+        // Read under the caller's lock; the executor hand-off makes them visible to the workers
+        private final int[] students;
+        private final int[] days;
+        private final short[] wakeUps;
+        private final short[] sleeps;
+        private final int[] screens;
+        private final int[] studies;
+        private final byte[] behaviors;
+        private final int[] studentGrades;
+
+        Scan(TenantSnapshot snapshot, int fromDay, int toDay, int[] bucketOfDay, int gradeFilter, int gradeCount,
+             int cohortCount, int studentCount) {
+            this.slotCount = snapshot.slotCount;
+            this.students = snapshot.studentOf;
+            this.days = snapshot.dayOf;
+            this.wakeUps = snapshot.wakeUpOf;
+            this.sleeps = snapshot.sleepOf;
+            this.screens = snapshot.screenOf;
+            this.studies = snapshot.studyOf;
+            this.behaviors = snapshot.behaviorOf;
+            this.studentGrades = snapshot.gradeOf;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.bucketOfDay = bucketOfDay;
+            this.gradeFilter = gradeFilter;
+            this.gradeCount = gradeCount;
+            this.cohortCount = cohortCount;
+            this.studentCount = studentCount;
+        }
+
+        Cohort[] run(int start, int end) {
+            Cohort[] cohorts = new Cohort[cohortCount];
+            for (int slot = start; slot < end; slot++) {
+                int student = students[slot];
+                int day = days[slot];
+                if (student < 0 || day < fromDay || day > toDay) {
+                    continue;
+                }
+                int grade = studentGrades[student];
+                if (gradeFilter >= 0 && grade != gradeFilter) {
+                    continue;
+                }
+                int index = bucketOfDay[day - fromDay] * gradeCount + grade;
+                Cohort cohort = cohorts[index];
+                if (cohort == null) {
+                    cohort = cohorts[index] = new Cohort(studentCount);
+                }
+                cohort.routines++;
+                if (cohort.students != null) {
+                    cohort.students.set(student);
+                }
+                if (screens[slot] != NO_MINUTES) {
+                    cohort.screen.add(screens[slot]);
+                }
+                if (studies[slot] != NO_MINUTES) {
+                    cohort.study.add(studies[slot]);
+                }
+                if (wakeUps[slot] != NO_TIME) {
+                    cohort.wakeUp.add(wakeUps[slot]);
+                }
+                int sleep = sleeps[slot];
+                if (sleep != NO_TIME) {
+                    cohort.sleep.add(sleep < NOON ? sleep + DAY_MINUTES : sleep);
+                }
+                int behavior = behaviors[slot];
+                cohort.behavior[behavior == NO_BEHAVIOR ? BEHAVIORS.length : behavior]++;
+            }
+            return cohorts;
+        }
+    }
+
+    // Running aggregate of one (bucket, class grade)
+    private static final class Cohort {
+        long routines;
+        // Null when every routine in the cohort is from a different student
+        final BitSet students;
+        final Distribution screen = new Distribution();
+        final Distribution study = new Distribution();
+        final Distribution wakeUp = new Distribution();
+        final Distribution sleep = new Distribution();
+        // One count per behavior, then routines without one
+        final long[] behavior = new long[BEHAVIORS.length + 1];
+
+        // studentCount 0 when students need no counting
+        Cohort(int studentCount) {
+            this.students = studentCount > 0 ? new BitSet(studentCount) : null;
+        }
+
+        void merge(Cohort other) {
+            routines += other.routines;
+            if (students != null) {
+                students.or(other.students);
+            }
+            screen.merge(other.screen);
+            study.merge(other.study);
+            wakeUp.merge(other.wakeUp);
+            sleep.merge(other.sleep);
+            for (int i = 0; i < behavior.length; i++) {
+                behavior[i] += other.behavior[i];
+            }
+        }
+
+        CohortStats toStats(LocalDate bucketStart, String classGrade) {
+            Map<DailyRoutine.Behavior, Long> counts = new EnumMap<>(DailyRoutine.Behavior.class);
+            for (DailyRoutine.Behavior value : BEHAVIORS) {
+                counts.put(value, behavior[value.ordinal()]);
+            }
+            return new CohortStats(bucketStart, classGrade, routines, students != null ? students.cardinality() : routines,
+                screen.summary(), study.summary(), wakeUp.summary(), sleep.summary(),
+                counts, behavior[BEHAVIORS.length]);
+        }
+    }
+
+    /**
+     * Values of one metric, counted per value over the range seen so far so that percentiles
+     * need no sort. Falls back to a plain list when an outlier would stretch the range too far.
+     */
+    private static final class Distribution {
+        private static final int MAX_SPAN = 1 << 15;
+
+        private int base;
+        private int[] counts;
+        // Every value, once the range got too wide for counts
+        private int[] values;
+        private int size;
+
+        void add(int value) {
+            if (counts != null) {
+                int index = value - base;
+                if (index >= 0 && index < counts.length) {
+                    counts[index]++;
+                    size++;
+                    return;
+                }
+            }
+            if (values == null && !cover(value, value)) {
+                spill();
+            }
+            if (values == null) {
+                counts[value - base]++;
+                size++;
+            } else {
+                append(value, 1);
+            }
+        }
+
+        void merge(Distribution other) {
+            if (other.size == 0) {
+                return;
+            }
+            if (values == null && (other.values != null
+                    || !cover(other.base, (int) ((long) other.base + other.counts.length - 1)))) {
+                spill();
+            }
+            if (other.values != null) {
+                for (int i = 0; i < other.size; i++) {
+                    append(other.values[i], 1);
+                }
+                return;
+            }
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] == 0) {
+                    continue;
+                }
+                if (values == null) {
+                    counts[other.base + i - base] += other.counts[i];
+                    size += other.counts[i];
+                } else {
+                    append(other.base + i, other.counts[i]);
+                }
+            }
+        }
+
+        CohortStats.MetricSummary summary() {
+            if (size == 0) {
+                return new CohortStats.MetricSummary(null, null, null);
+            }
+            long sum = 0;
+            if (values != null) {
+                Arrays.sort(values, 0, size);
+                for (int i = 0; i < size; i++) {
+                    sum += values[i];
+                }
+            } else {
+                for (int i = 0; i < counts.length; i++) {
+                    sum += counts[i] * ((long) base + i);
+                }
+            }
+            return new CohortStats.MetricSummary((double) sum / size, percentile(5), percentile(9));
+        }
+
+        // PERCENTILE_CONT at tenths/10, in integer arithmetic so it rounds exactly as the database does
+        private double percentile(int tenths) {
+            long position = (long) tenths * (size - 1);
+            int lower = (int) (position / 10);
+            long fraction = position % 10;
+            long low = nth(lower);
+            if (fraction == 0) {
+                return low;
+            }
+            return (low * 10 + fraction * (nth(lower + 1) - low)) / 10.0;
+        }
+
+        // The n-th smallest value, counting from zero
+        private long nth(int n) {
+            if (values != null) {
+                return values[n];
+            }
+            int seen = 0;
+            for (int i = 0; ; i++) {
+                seen += counts[i];
+                if (seen > n) {
+                    return (long) base + i;
+                }
+            }
+        }
+
+        // Widens the counts to cover [low, high]; false when that would exceed MAX_SPAN
+        private boolean cover(int low, int high) {
+            long end = counts == null ? high : (long) base + counts.length - 1;
+            if (counts != null && low >= base && high <= end) {
+                return true;
+            }
+            long from = counts == null ? low : Math.min(base, low);
+            long to = Math.max(end, high);
+            if (to - from + 1 > MAX_SPAN) {
+                return false;
+            }
+            // At least double, with the slack on the side that grew, so a range drifting one way
+            // does not copy on every value
+            int length = (int) Math.min(MAX_SPAN, Math.max(to - from + 1, counts == null ? 64 : counts.length * 2L));
+            long start = counts != null && low < base ? to - length + 1 : from;
+            start = Math.max(Integer.MIN_VALUE, Math.min(start, (long) Integer.MAX_VALUE - length + 1));
+            int[] grown = new int[length];
+            if (counts != null) {
+                System.arraycopy(counts, 0, grown, (int) (base - start), counts.length);
+            }
+            base = (int) start;
+            counts = grown;
+            return true;
+        }
+
+        private void spill() {
+            values = new int[Math.max(16, size * 2)];
+            int filled = 0;
+            if (counts != null) {
+                for (int i = 0; i < counts.length; i++) {
+                    Arrays.fill(values, filled, filled + counts[i], base + i);
+                    filled += counts[i];
+                }
+                counts = null;
+            }
+        }
+
+        private void append(int value, int times) {
+            if (size + times > values.length) {
+                values = Arrays.copyOf(values, Math.max(size + times, values.length * 2));
+            }
+            Arrays.fill(values, size, size + times, value);
+            size += times;
+        }
+    }
+
+    @TransactionalEventListener
+    public void onRoutineChange(RoutineChangeEvent change) {
+        TenantSnapshot snapshot = current();
+        snapshot.lock.writeLock().lock();
+        try {
+            if (change.type() == RoutineChangeEvent.Type.DELETED) {
+                snapshot.remove(change.studentId(), change.routineDate());
+            } else {
+                snapshot.put(change.metrics());
+            }
+        } finally {
+            snapshot.lock.writeLock().unlock();
+        }
+        if (snapshot.loading) {
+            snapshot.changedDuringLoad.put(change.routineId(), new RoutineKey(change.studentId(), change.routineDate()));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onStudentGradeChanged(StudentGradeChangedEvent changed) {
+        TenantSnapshot snapshot = current();
+        snapshot.lock.writeLock().lock();
+        try {
+            Integer student = snapshot.studentIndex.get(changed.studentId());
+            if (student != null) {
+                snapshot.gradeOf[student] = snapshot.grade(changed.classGrade());
+            }
+        } finally {
+            snapshot.lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onStudentDeleted(StudentDeletedEvent deleted) {
+        TenantSnapshot snapshot = current();
+        snapshot.removeStudent(deleted.studentId());
+        if (snapshot.loading) {
+            snapshot.studentsDeletedDuringLoad.add(deleted.studentId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoad() {
+        for (TenantSnapshot snapshot : snapshots.values()) {
+            Thread thread = new Thread(() -> TenantContext.run(snapshot.tenant, snapshot::load),
+                "analytics-snapshot-load-" + snapshot.tenant);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        workers.shutdownNow();
+    }
+
+    private TenantSnapshot current() {
+        return snapshots.get(tenants.current());
+    }
+
+
+    // One tenant's columns and load state; the tenant's context is set around everything that queries
+    private final class TenantSnapshot {
+        private final String tenant;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        // Columns, indexed by slot; a slot whose student is -1 is free for reuse
+        private int[] studentOf = new int[0];
+        private int[] dayOf = new int[0];
+        private short[] wakeUpOf = new short[0];
+        private short[] sleepOf = new short[0];
+        private int[] screenOf = new int[0];
+        private int[] studyOf = new int[0];
+        private byte[] behaviorOf = new byte[0];
+        private int slotCount;
+        private int[] freeSlots = new int[16];
+        private int freeCount;
+        private final SlotIndex slotIndex = new SlotIndex();
+
+        // Students are numbered densely in the order they are first seen
+        private final Map<Long, Integer> studentIndex = new HashMap<>();
+        private int[] gradeOf = new int[16];
+        private final List<String> grades = new ArrayList<>();
+        private final Map<String, Integer> gradeIndex = new HashMap<>();
+
+        private final Map<Long, RoutineKey> changedDuringLoad = new ConcurrentHashMap<>();
+        private final Set<Long> studentsDeletedDuringLoad = ConcurrentHashMap.newKeySet();
+        private volatile boolean loading = true;
+        private final CountDownLatch loaded = new CountDownLatch(1);
+        private volatile boolean ready;
+        private volatile int routineCount;
+
+        TenantSnapshot(String tenant) {
+            this.tenant = tenant;
+        }
+
+        void load() {
+            long started = System.currentTimeMillis();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    // H2 otherwise materializes the whole table before returning the first row
+                    jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION TRUE");
+                    try {
+                        jdbcTemplate.query(SELECT, rs -> {
+                            if (closed) {
+                                throw new IllegalStateException("Shut down during load");
+                            }
+                            putRow(rs);
+                        });
+                    } finally {
+                        jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION FALSE");
+                    }
+                });
+                reconcileChangesDuringLoad();
+                loading = false;
+                // Catches events that saw the flag just before it was cleared
+                reconcileChangesDuringLoad();
+                ready = true;
+                log.info("Analytics snapshot loaded for tenant {}: {} routine(s) in {} ms", tenant, routineCount,
+                    System.currentTimeMillis() - started);
+            } catch (Exception e) {
+                if (!closed) {
+                    log.error("Analytics snapshot load failed for tenant {}", tenant, e);
+                }
+            } finally {
+                loaded.countDown();
+            }
+        }
+
+        // The load may have read an older copy of anything that changed while it ran
+        private void reconcileChangesDuringLoad() {
+            Map<Long, RoutineKey> changed = new HashMap<>();
+            for (Long id : changedDuringLoad.keySet()) {
+                RoutineKey key = changedDuringLoad.remove(id);
+                if (key != null) {
+                    changed.put(id, key);
+                }
+            }
+            for (Long studentId : Set.copyOf(studentsDeletedDuringLoad)) {
+                studentsDeletedDuringLoad.remove(studentId);
+                removeStudent(studentId);
+            }
+            List<Long> ids = new ArrayList<>(changed.keySet());
+            for (int start = 0; start < ids.size(); start += RECONCILE_BATCH) {
+                List<Long> batch = ids.subList(start, Math.min(ids.size(), start + RECONCILE_BATCH));
+                Set<Long> missing = new HashSet<>(batch);
+                String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+                jdbcTemplate.query(SELECT + " WHERE r.id IN (" + placeholders + ")", rs -> {
+                    missing.remove(rs.getLong(1));
+                    putRow(rs);
+                }, batch.toArray());
+                lock.writeLock().lock();
+                try {
+                    for (Long id : missing) {
+                        RoutineKey key = changed.get(id);
+                        remove(key.studentId(), key.routineDate());
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+
+        private void putRow(ResultSet rs) throws SQLException {
+            long studentId = rs.getLong(2);
+            String classGrade = rs.getString(3);
+            int day = (int) rs.getObject(4, LocalDate.class).toEpochDay();
+            short wakeUp = (short) rs.getInt(5);
+            wakeUp = rs.wasNull() ? NO_TIME : wakeUp;
+            short sleep = (short) rs.getInt(6);
+            sleep = rs.wasNull() ? NO_TIME : sleep;
+            int screen = rs.getInt(7);
+            screen = rs.wasNull() ? NO_MINUTES : screen;
+            int study = rs.getInt(8);
+            study = rs.wasNull() ? NO_MINUTES : study;
+            String behavior = rs.getString(9);
+            lock.writeLock().lock();
+            try {
+                put(studentId, classGrade, day, wakeUp, sleep, screen, study,
+                    behavior != null ? (byte) DailyRoutine.Behavior.valueOf(behavior).ordinal() : NO_BEHAVIOR);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Caller holds the write lock
+        private void put(RoutineMetrics metrics) {
+            put(metrics.studentId(), metrics.classGrade(), (int) metrics.routineDate().toEpochDay(),
+                minuteOfDay(metrics.wakeUpTime()), minuteOfDay(metrics.sleepTime()),
+                minutes(metrics.screenTimeMinutes()), minutes(metrics.studyTimeMinutes()),
+                metrics.behaviorAtHome() != null ? (byte) metrics.behaviorAtHome().ordinal() : NO_BEHAVIOR);
+        }
+
+        // Caller holds the write lock
+        private void put(long studentId, String classGrade, int day, short wakeUp, short sleep,
+                         int screen, int study, byte behavior) {
+            int student = student(studentId);
+            gradeOf[student] = grade(classGrade);
+            long key = key(student, day);
+            int slot = slotIndex.get(key);
+            if (slot < 0) {
+                slot = allocateSlot();
+                slotIndex.put(key, slot);
+                studentOf[slot] = student;
+                dayOf[slot] = day;
+                routineCount++;
+            }
+            wakeUpOf[slot] = wakeUp;
+            sleepOf[slot] = sleep;
+            screenOf[slot] = screen;
+            studyOf[slot] = study;
+            behaviorOf[slot] = behavior;
+        }
+
+        // Caller holds the write lock
+        private void remove(Long studentId, LocalDate routineDate) {
+            Integer student = studentIndex.get(studentId);
+            if (student == null) {
+                return;
+            }
+            long key = key(student, (int) routineDate.toEpochDay());
+            int slot = slotIndex.get(key);
+            if (slot >= 0) {
+                slotIndex.remove(key);
+                freeSlot(slot);
+            }
+        }
+
+        private void removeStudent(Long studentId) {
+            lock.writeLock().lock();
+            try {
+                Integer student = studentIndex.get(studentId);
+                if (student == null) {
+                    return;
+                }
+                for (int slot = 0; slot < slotCount; slot++) {
+                    if (studentOf[slot] == student) {
+                        slotIndex.remove(key(student, dayOf[slot]));
+                        freeSlot(slot);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private int allocateSlot() {
+            if (freeCount > 0) {
+                return freeSlots[--freeCount];
+            }
+            if (slotCount == studentOf.length) {
+                int capacity = Math.max(1024, slotCount * 2);
+                studentOf = Arrays.copyOf(studentOf, capacity);
+                dayOf = Arrays.copyOf(dayOf, capacity);
+                wakeUpOf = Arrays.copyOf(wakeUpOf, capacity);
+                sleepOf = Arrays.copyOf(sleepOf, capacity);
+                screenOf = Arrays.copyOf(screenOf, capacity);
+                studyOf = Arrays.copyOf(studyOf, capacity);
+                behaviorOf = Arrays.copyOf(behaviorOf, capacity);
+            }
+            return slotCount++;
+        }
+
+        private void freeSlot(int slot) {
+            studentOf[slot] = -1;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            routineCount--;
+        }
+
+        private int student(long studentId) {
+            Integer student = studentIndex.get(studentId);
+            if (student == null) {
+                student = studentIndex.size();
+                studentIndex.put(studentId, student);
+                if (student == gradeOf.length) {
+                    gradeOf = Arrays.copyOf(gradeOf, student * 2);
+                }
+            }
+            return student;
+        }
+
+        private int grade(String classGrade) {
+            Integer grade = gradeIndex.get(classGrade);
+            if (grade == null) {
+                grade = grades.size();
+                grades.add(classGrade);
+                gradeIndex.put(classGrade, grade);
+            }
+            return grade;
+        }
+    }
+
+    private static long key(int student, int day) {
+        return (long) student << 32 | (day & 0xFFFFFFFFL);
+    }
+
+    private static short minuteOfDay(LocalTime time) {
+        return time != null ? (short) (time.getHour() * 60 + time.getMinute()) : NO_TIME;
+    }
+
+    private static int minutes(Integer minutes) {
+        return minutes != null ? minutes : NO_MINUTES;
+    }
+
+    private record RoutineKey(Long studentId, LocalDate routineDate) {}
+
+    // Open-addressing map from slot key to slot, with linear probing; keys are never negative
+    private static final class SlotIndex {
+        private static final long EMPTY = -1;
+
+        private long[] keys = emptyKeys(1024);
+        private int[] slots = new int[1024];
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return slots[i];
+                }
+                if (keys[i] == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long key, int slot) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                size++;
+            }
+            keys[i] = key;
+            slots[i] = slot;
+        }
+
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            // Shifts later entries of the probe run back so no lookup stops early at the gap
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = hash(keys[j]) & mask;
+                boolean reachable = i <= j ? i < home && home <= j : i < home || home <= j;
+                if (!reachable) {
+                    keys[i] = keys[j];
+                    slots[i] = slots[j];
+                    i = j;
+                }
+            }
+            keys[i] = EMPTY;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldSlots = slots;
+            keys = emptyKeys(capacity);
+            slots = new int[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldSlots[i]);
+                }
+            }
+        }
+
+        private static long[] emptyKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int hash(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+        }
+    }
+}
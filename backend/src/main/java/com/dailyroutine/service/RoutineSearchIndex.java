@@ -0,0 +1,395 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.config.TenantContext;
+import com.dailyroutine.config.Tenants;
+import com.dailyroutine.dto.RoutineCursor;
+import com.dailyroutine.dto.RoutineSearchDocument;
+import com.dailyroutine.repository.DailyRoutineRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over the free-text columns of every routine, so that searching meal items,
+ * activities, notes and feedback costs a few posting-list lookups instead of a {@code LIKE}
+ * scan of the routines table.
+ *
+ * <p>The index is rebuilt from the database on a background thread at startup and then kept
+ * current from {@link RoutineChangeEvent}s as their transactions commit. Changes made while the
+ * rebuild is running are re-read once it has finished, so the rebuild can never leave an older
+ * copy of a routine behind. Searches see writes within {@code search.refresh-interval-ms}.
+ * The index only supplies ids in display order; callers read the routines themselves from the
+ * database, so results always reflect committed data. Every tenant has a separate index, built
+ * and searched independently.
+ */
+@Component
+public class RoutineSearchIndex implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutineSearchIndex.class);
+
+    // Searched fields; results are ordered by date, so the weights never affect ranking
+    private static final Map<String, Float> TEXT_FIELDS = Map.of(
+        "breakfastItems", 1f, "lunchItems", 1f, "dinnerItems", 1f,
+        "beforeClassActivity", 1f, "notes", 1f, "adminFeedback", 1f);
+
+    private static final String ID = "id";
+    private static final String STUDENT_ID = "studentId";
+    private static final String DATE = "routineDate";
+
+    // Same order as the routine listings: newest first, then highest id
+    private static final Sort NEWEST_FIRST = new Sort(
+        new SortField(DATE, SortField.Type.LONG, true),
+        new SortField(ID, SortField.Type.LONG, true));
+
+    private final DailyRoutineRepository routineRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Tenants tenants;
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final Map<String, TenantIndex> indexes = new HashMap<>();
+    private volatile boolean closed;
+
+    public RoutineSearchIndex(DailyRoutineRepository routineRepository,
+                              TransactionTemplate transactionTemplate,
+                              JdbcTemplate jdbcTemplate,
+                              Tenants tenants,
+                              @Value("${search.index-path:}") String indexPath,
+                              @Value("${search.ram-buffer-mb:64}") double ramBufferMb) throws IOException {
+        this.routineRepository = routineRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tenants = tenants;
+        for (String tenant : tenants.ids()) {
+            Directory directory = indexPath.isBlank()
+                ? new ByteBuffersDirectory()
+                : FSDirectory.open(Path.of(indexPath, tenant));
+            indexes.put(tenant, new TenantIndex(tenant, directory, ramBufferMb));
+        }
+    }
+
+    /** Whether the current tenant's index has finished its startup rebuild. */
+    public boolean isReady() {
+        return current().ready;
+    }
+
+    /** Waits for every tenant's startup rebuild; false if one did not succeed within {@code timeout}. */
+    public boolean awaitReady(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (TenantIndex index : indexes.values()) {
+            long remaining = deadline - System.nanoTime();
+            if (!index.built.await(remaining, TimeUnit.NANOSECONDS) || !index.ready) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getDocumentCount() {
+        return current().writer.getDocStats().numDocs;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (TenantIndex index : indexes.values()) {
+            Gauge.builder("search.index.documents", index, i -> i.writer.getDocStats().numDocs)
+                .tag("tenant", index.tenant).register(registry);
+            Gauge.builder("search.index.ready", index, i -> i.ready ? 1 : 0)
+                .tag("tenant", index.tenant).register(registry);
+        }
+    }
+
+    /**
+     * Ids of routines matching {@code text}, newest first, after {@code after} when given.
+     * {@code text} uses simple query syntax: words must all match, {@code "..."} is a phrase,
+     * {@code |} means or, {@code -} excludes and a trailing {@code *} matches a prefix.
+     *
+     * @param studentIds restricts results to these students; {@code null} for all
+     * @throws IllegalStateException while the startup rebuild is still running
+     */
+    public List<Long> search(String text, Collection<Long> studentIds, LocalDate from, LocalDate to,
+                             RoutineCursor after, int limit) throws IOException {
+        TenantIndex index = current();
+        if (!index.ready) {
+            throw new IllegalStateException("Search index is still being built");
+        }
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, TEXT_FIELDS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query textQuery = parser.parse(text);
+        if (textQuery == null || studentIds != null && studentIds.isEmpty()) {
+            // Only stop words, or a grade with no students
+            textQuery = new MatchNoDocsQuery();
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder().add(textQuery, BooleanClause.Occur.MUST);
+        if (studentIds != null && !studentIds.isEmpty()) {
+            query.add(LongPoint.newSetQuery(STUDENT_ID, studentIds), BooleanClause.Occur.FILTER);
+        }
+        if (from != null || to != null) {
+            long lower = from != null ? from.toEpochDay() : Long.MIN_VALUE;
+            long upper = to != null ? to.toEpochDay() : Long.MAX_VALUE;
+            query.add(LongPoint.newRangeQuery(DATE, lower, upper), BooleanClause.Occur.FILTER);
+        }
+
+        SearcherManager searcherManager = index.searcherManager;
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopFieldDocs hits = after == null
+                ? searcher.search(query.build(), limit, NEWEST_FIRST, false)
+                : searcher.searchAfter(cursorPosition(searcher, after), query.build(), limit, NEWEST_FIRST, false);
+            List<Long> ids = new ArrayList<>(hits.scoreDocs.length);
+            for (ScoreDoc hit : hits.scoreDocs) {
+                ids.add((Long) ((FieldDoc) hit).fields[1]);
+            }
+            return ids;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    // Hits tied with the cursor on both sort values must be the cursor's own routine, so the
+    // tie-breaking doc id is set past every document to leave it out
+    private static FieldDoc cursorPosition(IndexSearcher searcher, RoutineCursor after) {
+        return new FieldDoc(searcher.getIndexReader().maxDoc() - 1, Float.NaN,
+            new Object[] { after.getRoutineDate().toEpochDay(), after.getId() });
+    }
+
+    @TransactionalEventListener
+    public void onRoutineChange(RoutineChangeEvent change) {
+        TenantIndex index = current();
+        try {
+            if (change.type() == RoutineChangeEvent.Type.DELETED) {
+                index.writer.deleteDocuments(new Term(ID, change.routineId().toString()));
+            } else {
+                index.index(change.document());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (index.rebuilding) {
+            index.changedDuringRebuild.add(change.routineId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onStudentDeleted(StudentDeletedEvent deleted) {
+        TenantIndex index = current();
+        try {
+            index.writer.deleteDocuments(LongPoint.newExactQuery(STUDENT_ID, deleted.studentId()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (index.rebuilding) {
+            index.studentsDeletedDuringRebuild.add(deleted.studentId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRebuild() {
+        for (TenantIndex index : indexes.values()) {
+            Thread thread = new Thread(() -> TenantContext.run(index.tenant, index::rebuild),
+                "search-index-rebuild-" + index.tenant);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${search.refresh-interval-ms:1000}")
+    public void refresh() throws IOException {
+        if (!closed) {
+            for (TenantIndex index : indexes.values()) {
+                index.searcherManager.maybeRefresh();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        closed = true;
+        for (TenantIndex index : indexes.values()) {
+            index.searcherManager.close();
+            index.writer.rollback();
+            index.directory.close();
+        }
+    }
+
+    private TenantIndex current() {
+        return indexes.get(tenants.current());
+    }
+
+    private final class TenantIndex {
+        private final String tenant;
+        private final Directory directory;
+        private final IndexWriter writer;
+        private final SearcherManager searcherManager;
+
+        private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+        private final Set<Long> studentsDeletedDuringRebuild = ConcurrentHashMap.newKeySet();
+        private volatile boolean rebuilding = true;
+        private final CountDownLatch built = new CountDownLatch(1);
+        private volatile boolean ready;
+
+        TenantIndex(String tenant, Directory directory, double ramBufferMb) throws IOException {
+            this.tenant = tenant;
+            this.directory = directory;
+            IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                // The database is the source of truth; whatever is on disk is discarded and rebuilt
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE)
+                .setRAMBufferSizeMB(ramBufferMb)
+                // Segments stored in result order let a search stop after the first page of hits
+                .setIndexSort(NEWEST_FIRST);
+            this.writer = new IndexWriter(directory, config);
+            this.searcherManager = new SearcherManager(writer, null);
+        }
+
+        // Runs with the tenant's context set, so the queries read its database
+        void rebuild() {
+            long started = System.currentTimeMillis();
+            try {
+                long count = transactionTemplate.execute(status -> {
+                    // H2 otherwise materializes the whole table before returning the first row
+                    jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION TRUE");
+                    try (Stream<RoutineSearchDocument> documents = routineRepository.streamSearchDocuments()) {
+                        long added = 0;
+                        for (RoutineSearchDocument document : (Iterable<RoutineSearchDocument>) documents::iterator) {
+                            if (closed) {
+                                break;
+                            }
+                            writer.addDocument(toDocument(document));
+                            added++;
+                        }
+                        return added;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION FALSE");
+                    }
+                });
+                reconcileChangesDuringRebuild();
+                rebuilding = false;
+                // Catches events that saw the flag just before it was cleared
+                reconcileChangesDuringRebuild();
+                searcherManager.maybeRefreshBlocking();
+                ready = true;
+                log.info("Search index built for tenant {}: {} routine(s) in {} ms",
+                    tenant, count, System.currentTimeMillis() - started);
+            } catch (Exception e) {
+                if (!closed) {
+                    log.error("Search index rebuild failed for tenant {}", tenant, e);
+                }
+            } finally {
+                built.countDown();
+            }
+        }
+
+        // The rebuild may have added an older copy of anything that changed while it ran
+        private void reconcileChangesDuringRebuild() throws IOException {
+            Set<Long> changed = drain(changedDuringRebuild);
+            Set<Long> deletedStudents = drain(studentsDeletedDuringRebuild);
+            for (Long studentId : deletedStudents) {
+                writer.deleteDocuments(LongPoint.newExactQuery(STUDENT_ID, studentId));
+            }
+            if (changed.isEmpty()) {
+                return;
+            }
+            Set<Long> missing = new HashSet<>(changed);
+            for (RoutineSearchDocument document : routineRepository.findSearchDocumentsByIdIn(changed)) {
+                index(document);
+                missing.remove(document.id());
+            }
+            for (Long id : missing) {
+                writer.deleteDocuments(new Term(ID, id.toString()));
+            }
+        }
+
+        void index(RoutineSearchDocument document) throws IOException {
+            writer.updateDocument(new Term(ID, document.id().toString()), toDocument(document));
+        }
+    }
+
+    private static Set<Long> drain(Set<Long> source) {
+        Set<Long> drained = new HashSet<>();
+        for (Long id : source) {
+            if (source.remove(id)) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+
+    private static Document toDocument(RoutineSearchDocument routine) {
+        Document document = new Document();
+        document.add(new StringField(ID, routine.id().toString(), Field.Store.NO));
+        document.add(new NumericDocValuesField(ID, routine.id()));
+        document.add(new LongPoint(STUDENT_ID, routine.studentId()));
+        long epochDay = routine.routineDate().toEpochDay();
+        document.add(new LongPoint(DATE, epochDay));
+        document.add(new NumericDocValuesField(DATE, epochDay));
+        addText(document, "breakfastItems", routine.breakfastItems());
+        addText(document, "lunchItems", routine.lunchItems());
+        addText(document, "dinnerItems", routine.dinnerItems());
+        addText(document, "beforeClassActivity", routine.beforeClassActivity());
+        addText(document, "notes", routine.notes());
+        addText(document, "adminFeedback", routine.adminFeedback());
+        return document;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+}
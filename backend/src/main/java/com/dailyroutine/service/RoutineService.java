@@ -1,53 +1,316 @@
 package com.dailyroutine.service;
 
+import com.dailyroutine.config.AuthenticatedUser;
+import com.dailyroutine.dto.CursorPage;
+import com.dailyroutine.dto.RoutineBatchItemResult;
+import com.dailyroutine.dto.RoutineBatchResult;
+import com.dailyroutine.dto.RoutineCursor;
 import com.dailyroutine.dto.RoutineRequest;
+import com.dailyroutine.dto.RoutineMetrics;
+import com.dailyroutine.dto.RoutineSearchDocument;
+import com.dailyroutine.dto.RoutineView;
+import com.dailyroutine.dto.StudentView;
+import com.dailyroutine.dto.VersionStamp;
 import com.dailyroutine.entity.DailyRoutine;
 import com.dailyroutine.entity.Student;
 import com.dailyroutine.entity.User;
 import com.dailyroutine.repository.DailyRoutineRepository;
 import com.dailyroutine.repository.StudentRepository;
-import com.dailyroutine.repository.UserRepository;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class RoutineService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+
     private final DailyRoutineRepository routineRepository;
     private final StudentRepository studentRepository;
-    private final UserRepository userRepository;
+    private final StudentCache studentCache;
+    private final CurrentUserService currentUserService;
+    private final RoutineSummaryService summaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoutineSearchIndex searchIndex;
+    private final FoodCatalog foodCatalog;
+    private final TransactionTemplate transactionTemplate;
 
     public RoutineService(DailyRoutineRepository routineRepository, 
                          StudentRepository studentRepository, 
-                         UserRepository userRepository) {
+                         StudentCache studentCache,
+                         CurrentUserService currentUserService,
+                         RoutineSummaryService summaryService,
+                         ApplicationEventPublisher eventPublisher,
+                         RoutineSearchIndex searchIndex,
+                         FoodCatalog foodCatalog,
+                         TransactionTemplate transactionTemplate) {
         this.routineRepository = routineRepository;
         this.studentRepository = studentRepository;
-        this.userRepository = userRepository;
+        this.studentCache = studentCache;
+        this.currentUserService = currentUserService;
+        this.summaryService = summaryService;
+        this.eventPublisher = eventPublisher;
+        this.searchIndex = searchIndex;
+        this.foodCatalog = foodCatalog;
+        this.transactionTemplate = transactionTemplate;
     }
 
-    public List<DailyRoutine> getRoutinesByStudent(Long studentId) {
-        return routineRepository.findByStudentIdOrderByRoutineDateDesc(studentId);
+    public CursorPage<RoutineView> getRoutinesByStudent(Long studentId, LocalDate from, LocalDate to,
+                                                         String cursor, Integer limit) {
+        LocalDate rangeStart = from != null ? from : EARLIEST_DATE;
+        LocalDate rangeEnd = to != null ? to : LATEST_DATE;
+        RoutineCursor after = cursor != null
+            ? RoutineCursor.parse(cursor)
+            : new RoutineCursor(rangeEnd, Long.MAX_VALUE);
+        int pageSize = pageSize(limit);
+
+        List<RoutineView> rows = routineRepository.findStudentHistoryPage(
+            studentId, rangeStart, rangeEnd, after.getRoutineDate(), after.getId(),
+            PageRequest.ofSize(pageSize + 1));
+        return toPage(rows, pageSize);
     }
 
-    public List<DailyRoutine> getRoutinesByDate(LocalDate date) {
-        return routineRepository.findByRoutineDate(date);
+    public CursorPage<RoutineView> getRoutinesByDate(LocalDate date, String classGrade,
+                                                      DailyRoutine.Behavior behavior,
+                                                      String cursor, Integer limit) {
+        long afterId = 0L;
+        if (cursor != null) {
+            RoutineCursor after = RoutineCursor.parse(cursor);
+            if (!after.getRoutineDate().equals(date)) {
+                throw new IllegalArgumentException("Cursor does not belong to date " + date);
+            }
+            afterId = after.getId();
+        }
+        int pageSize = pageSize(limit);
+
+        List<RoutineView> rows = routineRepository.findDatePage(
+            date, afterId, classGrade, behavior, PageRequest.ofSize(pageSize + 1));
+        return toPage(rows, pageSize);
     }
 
-    public DailyRoutine saveRoutine(RoutineRequest request) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username).orElseThrow();
-        Student student = studentRepository.findById(request.getStudentId()).orElseThrow();
+    /**
+     * Routines whose meal items, activity, notes or feedback match {@code text}, newest first.
+     * The index picks the page; the routines themselves are read from the database.
+     *
+     * @throws IllegalStateException while the search index is still being built
+     */
+    public CursorPage<RoutineView> searchRoutines(String text, Long studentId, String classGrade,
+                                                  LocalDate from, LocalDate to,
+                                                  String cursor, Integer limit) throws IOException {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("q is required");
+        }
+        RoutineCursor after = cursor != null ? RoutineCursor.parse(cursor) : null;
+        int pageSize = pageSize(limit);
 
-        Optional<DailyRoutine> existingRoutine = routineRepository
-            .findByStudentIdAndRoutineDate(request.getStudentId(), request.getRoutineDate());
+        Set<Long> studentIds = null;
+        if (classGrade != null) {
+            studentIds = new HashSet<>(studentRepository.findIdsByClassGrade(classGrade));
+            if (studentId != null) {
+                studentIds.retainAll(Set.of(studentId));
+            }
+        } else if (studentId != null) {
+            studentIds = Set.of(studentId);
+        }
 
-        DailyRoutine routine = existingRoutine.orElse(new DailyRoutine());
-        
+        List<Long> ids = searchIndex.search(text, studentIds, from, to, after, pageSize + 1);
+        if (ids.isEmpty()) {
+            return toPage(List.of(), pageSize);
+        }
+        Map<Long, RoutineView> views = routineRepository.findViewsByIdIn(ids).stream()
+            .collect(Collectors.toMap(RoutineView::id, Function.identity()));
+        // Keep the index order; a routine deleted since the index last refreshed is simply left out
+        List<RoutineView> rows = ids.stream().map(views::get).filter(Objects::nonNull).toList();
+        return toPage(rows, pageSize);
+    }
+
+    public VersionStamp getStudentHistoryVersion(Long studentId) {
+        return routineRepository.findStudentHistoryVersion(studentId);
+    }
+
+    public VersionStamp getDateVersion(LocalDate date) {
+        return routineRepository.findDateVersion(date);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    // Rows are fetched with one extra element; its presence means another page exists
+    private CursorPage<RoutineView> toPage(List<RoutineView> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<RoutineView> items = rows.subList(0, pageSize);
+        RoutineView last = items.get(pageSize - 1);
+        return new CursorPage<>(items, new RoutineCursor(last.routineDate(), last.id()).encode());
+    }
+
+    /**
+     * Creates or replaces the student's routine for the day with one {@code MERGE}, so concurrent
+     * saves for the same day serialize on the row instead of racing a read against a write.
+     *
+     * @throws OptimisticLockingFailureException if the request carries a version and the
+     *         routine has been saved or deleted since
+     */
+    public RoutineView saveRoutine(RoutineRequest request) {
+        try {
+            return transactionTemplate.execute(status -> upsert(request));
+        } catch (DataIntegrityViolationException e) {
+            // Two first saves of the same day both found no row and one lost the insert on the
+            // unique key; now that the other has committed, this one is an update
+            return transactionTemplate.execute(status -> upsert(request));
+        }
+    }
+
+    private RoutineView upsert(RoutineRequest request) {
+        StudentView student = studentCache.get(request.getStudentId()).orElseThrow();
+
+        DailyRoutine saved = routineRepository
+            .upsert(request, currentUserService.get().id(), LocalDateTime.now())
+            .orElseThrow(() -> new OptimisticLockingFailureException(
+                "Routine was changed or deleted since version " + request.getVersion() + "; reload it and try again"));
+        // The old meal text is not read back, so an update always re-links its food items
+        boolean created = saved.getVersion() == 0;
+        foodCatalog.linkItems(created ? List.of(saved) : List.of(), created ? List.of() : List.of(saved));
+        summaryService.refresh(List.of(student.id()), List.of(saved.getRoutineDate()));
+        // The routine holds an uninitialized student; its name, grade and parent come from the cache
+        publish(RoutineChangeEvent.Type.SAVED, saved, student.parentId(), student.classGrade());
+        String feedbackBy = saved.getFeedbackBy() != null ? saved.getFeedbackBy().getUsername() : null;
+        return RoutineView.from(saved, student.name(), student.classGrade(), feedbackBy);
+    }
+
+    /**
+     * Upserts many routines in one transaction. Students and existing routines are each
+     * resolved with a single query and the writes go out as JDBC batches. Entries that
+     * fail validation are reported individually and do not abort the rest.
+     */
+    @Transactional
+    public RoutineBatchResult saveRoutines(List<RoutineRequest> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " routines per batch");
+        }
+
+        Set<Long> studentIds = new HashSet<>();
+        Set<LocalDate> dates = new HashSet<>();
+        for (RoutineRequest request : requests) {
+            if (request.getStudentId() != null && request.getRoutineDate() != null) {
+                studentIds.add(request.getStudentId());
+                dates.add(request.getRoutineDate());
+            }
+        }
+
+        Map<Long, StudentView> students = studentCache.getAll(studentIds);
+        Map<RoutineKey, DailyRoutine> routines = new HashMap<>();
+        if (!studentIds.isEmpty()) {
+            for (DailyRoutine existing : routineRepository.findByStudentIdInAndRoutineDateIn(studentIds, dates)) {
+                routines.put(new RoutineKey(existing.getStudent().getId(), existing.getRoutineDate()), existing);
+            }
+        }
+
+        User currentUser = currentUserService.reference();
+        List<RoutineBatchItemResult> results = new ArrayList<>(requests.size());
+        List<DailyRoutine> toSave = new ArrayList<>(requests.size());
+        Set<DailyRoutine> createdRoutines = new HashSet<>();
+        Set<DailyRoutine> mealsChanged = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            RoutineRequest request = requests.get(i);
+            if (request.getStudentId() == null || request.getRoutineDate() == null) {
+                results.add(RoutineBatchItemResult.failed(i, "studentId and routineDate are required"));
+                continue;
+            }
+            StudentView student = students.get(request.getStudentId());
+            if (student == null) {
+                results.add(RoutineBatchItemResult.failed(i, "Student not found with id: " + request.getStudentId()));
+                continue;
+            }
+
+            RoutineKey key = new RoutineKey(request.getStudentId(), request.getRoutineDate());
+            DailyRoutine routine = routines.get(key);
+            if (routine == null && request.getVersion() != null) {
+                // A version refers to a routine that has since been deleted; don't recreate it
+                results.add(RoutineBatchItemResult.failed(i, "Routine was deleted since version " + request.getVersion()));
+                continue;
+            }
+            if (routine != null && request.getVersion() != null && !request.getVersion().equals(routine.getVersion())) {
+                results.add(RoutineBatchItemResult.failed(i, "Routine was changed since version " + request.getVersion()));
+                continue;
+            }
+            boolean created = routine == null;
+            if (created) {
+                routine = new DailyRoutine();
+                routines.put(key, routine);
+                createdRoutines.add(routine);
+            }
+            if (applyRequest(routine, request, studentRepository.getReferenceById(student.id()), currentUser)
+                    && !createdRoutines.contains(routine)) {
+                mealsChanged.add(routine);
+            }
+            toSave.add(routine);
+            results.add(new RoutineBatchItemResult(i,
+                created ? RoutineBatchItemResult.Status.CREATED : RoutineBatchItemResult.Status.UPDATED,
+                null, null));
+        }
+
+        routineRepository.saveAll(toSave);
+        routineRepository.flush();
+        foodCatalog.linkItems(createdRoutines, mealsChanged);
+        summaryService.refresh(
+            toSave.stream().map(routine -> routine.getStudent().getId()).collect(Collectors.toSet()),
+            toSave.stream().map(DailyRoutine::getRoutineDate).collect(Collectors.toSet()));
+        toSave.stream().distinct().forEach(routine -> {
+            StudentView student = students.get(routine.getStudent().getId());
+            publish(RoutineChangeEvent.Type.SAVED, routine, student.parentId(), student.classGrade());
+        });
+
+        // Ids are assigned from the pooled sequence on persist, so every saved routine has one now
+        List<RoutineBatchItemResult> withIds = new ArrayList<>(results.size());
+        int saved = 0;
+        for (RoutineBatchItemResult result : results) {
+            if (result.status() == RoutineBatchItemResult.Status.FAILED) {
+                withIds.add(result);
+            } else {
+                withIds.add(new RoutineBatchItemResult(result.index(), result.status(),
+                    toSave.get(saved++).getId(), null));
+            }
+        }
+        return RoutineBatchResult.of(withIds);
+    }
+
+    // Returns whether the food items need re-linking: the routine is new or its meal text changed
+    private boolean applyRequest(DailyRoutine routine, RoutineRequest request, Student student, User createdBy) {
+        boolean mealsChanged = routine.getId() == null
+            || !Objects.equals(routine.getBreakfastItems(), request.getBreakfastItems())
+            || !Objects.equals(routine.getLunchItems(), request.getLunchItems())
+            || !Objects.equals(routine.getDinnerItems(), request.getDinnerItems());
         routine.setStudent(student);
         routine.setRoutineDate(request.getRoutineDate());
         routine.setWakeUpTime(request.getWakeUpTime());
@@ -65,27 +328,56 @@ public class RoutineService {
         routine.setSleepTime(request.getSleepTime());
         routine.setBehaviorAtHome(request.getBehaviorAtHome());
         routine.setNotes(request.getNotes());
-        routine.setCreatedBy(currentUser);
-
-        return routineRepository.save(routine);
+        routine.setCreatedBy(createdBy);
+        return mealsChanged;
     }
 
+    private record RoutineKey(Long studentId, LocalDate routineDate) {}
+
+    @Transactional
     public void deleteRoutine(Long id) {
-        routineRepository.deleteById(id);
+        routineRepository.findById(id).ifPresent(routine -> {
+            routineRepository.delete(routine);
+            summaryService.refresh(List.of(routine.getStudent().getId()), List.of(routine.getRoutineDate()));
+            publish(RoutineChangeEvent.Type.DELETED, routine);
+        });
     }
 
-    public DailyRoutine addFeedback(Long routineId, String feedback) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User admin = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("Admin user not found"));
+    @Transactional
+    public RoutineView addFeedback(Long routineId, String feedback) {
+        AuthenticatedUser admin = currentUserService.get();
         
-        DailyRoutine routine = routineRepository.findById(routineId)
+        DailyRoutine routine = routineRepository.findWithStudentById(routineId)
             .orElseThrow(() -> new RuntimeException("Routine not found with id: " + routineId));
         
         routine.setAdminFeedback(feedback);
         routine.setFeedbackDate(LocalDateTime.now());
-        routine.setFeedbackBy(admin);
+        routine.setFeedbackBy(currentUserService.reference());
         
-        return routineRepository.save(routine);
+        DailyRoutine saved = routineRepository.save(routine);
+        summaryService.refresh(List.of(saved.getStudent().getId()), List.of(saved.getRoutineDate()));
+        publish(RoutineChangeEvent.Type.FEEDBACK, saved);
+        return RoutineView.from(saved, admin.username());
+    }
+
+    // Delivered to event stream subscribers only after the surrounding transaction commits
+    private void publish(RoutineChangeEvent.Type type, DailyRoutine routine) {
+        Student student = routine.getStudent();
+        publish(type, routine, student.getParent() != null ? student.getParent().getId() : null,
+            student.getClassGrade());
+    }
+
+    // Reads only the student's id from the routine, so a student reference is enough
+    private void publish(RoutineChangeEvent.Type type, DailyRoutine routine, Long parentId, String classGrade) {
+        eventPublisher.publishEvent(new RoutineChangeEvent(
+            type,
+            routine.getId(),
+            routine.getStudent().getId(),
+            parentId,
+            routine.getRoutineDate(),
+            type == RoutineChangeEvent.Type.FEEDBACK ? routine.getAdminFeedback() : null,
+            type == RoutineChangeEvent.Type.DELETED ? null : RoutineSearchDocument.from(routine),
+            type == RoutineChangeEvent.Type.DELETED ? null : RoutineMetrics.from(routine, classGrade)
+        ));
     }
-}
\ No newline at end of file
+}
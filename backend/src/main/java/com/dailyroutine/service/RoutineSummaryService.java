@@ -0,0 +1,250 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.dto.StudentSummary;
+import com.dailyroutine.entity.DailyRoutine;
+import com.dailyroutine.entity.RoutineSummary;
+import com.dailyroutine.entity.RoutineSummary.PeriodType;
+import com.dailyroutine.repository.DailyRoutineRepository;
+import com.dailyroutine.repository.RoutineSummaryRepository;
+import com.dailyroutine.repository.RoutineSummaryRepository.PeriodAggregate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains {@link RoutineSummary} rows and serves the per-student trend summary from them.
+ */
+@Service
+public class RoutineSummaryService {
+
+    public static final int TREND_WEEKS = 8;
+    public static final int TREND_MONTHS = 6;
+
+    // Weekly rows scanned when counting the current streak; longer streaks are reported as this cap
+    private static final int STREAK_WEEKS = 53;
+
+    private final RoutineSummaryRepository summaryRepository;
+    private final DailyRoutineRepository routineRepository;
+
+    public RoutineSummaryService(RoutineSummaryRepository summaryRepository,
+                                 DailyRoutineRepository routineRepository) {
+        this.summaryRepository = summaryRepository;
+        this.routineRepository = routineRepository;
+    }
+
+    /**
+     * Recomputes the week and month rows that contain any of {@code dates} for the given
+     * students. Must run inside the transaction that changed the routines so the aggregate
+     * query sees the pending writes.
+     */
+    @Transactional
+    public void refresh(Collection<Long> studentIds, Collection<LocalDate> dates) {
+        if (studentIds.isEmpty() || dates.isEmpty()) {
+            return;
+        }
+        // The aggregates are native SQL, so pending routine writes must reach the database first
+        summaryRepository.flush();
+        for (PeriodType periodType : PeriodType.values()) {
+            refresh(periodType, studentIds, dates);
+        }
+    }
+
+    private void refresh(PeriodType periodType, Collection<Long> studentIds, Collection<LocalDate> dates) {
+        TreeSet<LocalDate> periodStarts = dates.stream()
+            .map(date -> periodStart(periodType, date))
+            .collect(Collectors.toCollection(TreeSet::new));
+        LocalDate to = periodEnd(periodType, periodStarts.last());
+
+        Map<String, PeriodAggregate> aggregates = new HashMap<>();
+        for (PeriodAggregate aggregate : summaryRepository.aggregatePeriods(
+                periodType.name(), studentIds, periodStarts.first(), to)) {
+            if (periodStarts.contains(aggregate.getPeriodStart())) {
+                aggregates.put(key(aggregate.getStudentId(), aggregate.getPeriodStart()), aggregate);
+            }
+        }
+
+        List<RoutineSummary> toSave = new ArrayList<>();
+        List<RoutineSummary> toDelete = new ArrayList<>();
+        for (RoutineSummary existing : summaryRepository.findByStudentIdInAndPeriodTypeAndPeriodStartIn(
+                studentIds, periodType, periodStarts)) {
+            PeriodAggregate aggregate = aggregates.remove(key(existing.getStudentId(), existing.getPeriodStart()));
+            if (aggregate == null) {
+                toDelete.add(existing);
+            } else {
+                toSave.add(apply(existing, aggregate));
+            }
+        }
+        for (PeriodAggregate aggregate : aggregates.values()) {
+            toSave.add(apply(new RoutineSummary(aggregate.getStudentId(), periodType, aggregate.getPeriodStart()),
+                aggregate));
+        }
+
+        summaryRepository.deleteAll(toDelete);
+        summaryRepository.saveAll(toSave);
+    }
+
+    public void deleteForStudent(Long studentId) {
+        summaryRepository.deleteByStudentId(studentId);
+    }
+
+    /**
+     * Builds the dashboard summary from at most {@value #STREAK_WEEKS} weekly rows,
+     * {@value #TREND_MONTHS} monthly rows and the last 30 daily routines, independent of
+     * how long the student's history is.
+     */
+    public StudentSummary getSummary(Long studentId) {
+        LocalDate today = LocalDate.now();
+
+        List<RoutineSummary> weeks = summaryRepository.findByStudentIdAndPeriodTypeOrderByPeriodStartDesc(
+            studentId, PeriodType.WEEK, PageRequest.ofSize(STREAK_WEEKS));
+        List<RoutineSummary> months = summaryRepository.findByStudentIdAndPeriodTypeOrderByPeriodStartDesc(
+            studentId, PeriodType.MONTH, PageRequest.ofSize(TREND_MONTHS));
+        List<DailyRoutineRepository.RoutineMetrics> recent = routineRepository
+            .findByStudentIdAndRoutineDateBetween(studentId, today.minusDays(29), today);
+
+        return new StudentSummary(
+            studentId,
+            window(recent, today.minusDays(6)),
+            window(recent, today.minusDays(29)),
+            currentStreak(weeks, today),
+            weeks.stream().limit(TREND_WEEKS).map(this::toPeriod).toList(),
+            months.stream().map(this::toPeriod).toList()
+        );
+    }
+
+    private StudentSummary.Window window(List<DailyRoutineRepository.RoutineMetrics> recent, LocalDate from) {
+        int loggedDays = 0;
+        long screenTotal = 0;
+        int screenEntries = 0;
+        long studyTotal = 0;
+        int studyEntries = 0;
+        for (DailyRoutineRepository.RoutineMetrics metrics : recent) {
+            if (metrics.getRoutineDate().isBefore(from)) {
+                continue;
+            }
+            loggedDays++;
+            if (metrics.getScreenTimeMinutes() != null) {
+                screenTotal += metrics.getScreenTimeMinutes();
+                screenEntries++;
+            }
+            if (metrics.getStudyTimeMinutes() != null) {
+                studyTotal += metrics.getStudyTimeMinutes();
+                studyEntries++;
+            }
+        }
+        return new StudentSummary.Window(loggedDays, average(screenTotal, screenEntries),
+            average(studyTotal, studyEntries));
+    }
+
+    // Consecutive logged days ending today, or yesterday if today has not been logged yet
+    private int currentStreak(List<RoutineSummary> weeks, LocalDate today) {
+        Map<LocalDate, Long> masks = new HashMap<>();
+        for (RoutineSummary week : weeks) {
+            masks.put(week.getPeriodStart(), week.getLoggedDaysMask());
+        }
+        LocalDate day = isLogged(masks, today) ? today : today.minusDays(1);
+        int streak = 0;
+        while (isLogged(masks, day)) {
+            streak++;
+            day = day.minusDays(1);
+        }
+        return streak;
+    }
+
+    private boolean isLogged(Map<LocalDate, Long> weekMasks, LocalDate day) {
+        Long mask = weekMasks.get(periodStart(PeriodType.WEEK, day));
+        return mask != null && (mask & (1L << (day.getDayOfWeek().getValue() - 1))) != 0;
+    }
+
+    private StudentSummary.Period toPeriod(RoutineSummary summary) {
+        Map<DailyRoutine.Behavior, Long> behavior = new EnumMap<>(DailyRoutine.Behavior.class);
+        behavior.put(DailyRoutine.Behavior.EXCELLENT, summary.getExcellentCount());
+        behavior.put(DailyRoutine.Behavior.GOOD, summary.getGoodCount());
+        behavior.put(DailyRoutine.Behavior.AVERAGE, summary.getAverageCount());
+        behavior.put(DailyRoutine.Behavior.NEEDS_IMPROVEMENT, summary.getNeedsImprovementCount());
+
+        // EXCELLENT = 4 down to NEEDS_IMPROVEMENT = 1
+        long rated = summary.getExcellentCount() + summary.getGoodCount()
+            + summary.getAverageCount() + summary.getNeedsImprovementCount();
+        long score = 4 * summary.getExcellentCount() + 3 * summary.getGoodCount()
+            + 2 * summary.getAverageCount() + summary.getNeedsImprovementCount();
+
+        return new StudentSummary.Period(
+            summary.getPeriodStart(),
+            Long.bitCount(summary.getLoggedDaysMask()),
+            average(summary.getScreenTimeTotal(), summary.getScreenTimeEntries()),
+            average(summary.getStudyTimeTotal(), summary.getStudyTimeEntries()),
+            timeOfDay(summary.getWakeUpMinutesTotal(), summary.getWakeUpMinutesSquares(), summary.getWakeUpEntries()),
+            timeOfDay(summary.getSleepMinutesTotal(), summary.getSleepMinutesSquares(), summary.getSleepEntries()),
+            behavior,
+            average(score, rated),
+            summary.getFeedbackCount()
+        );
+    }
+
+    private StudentSummary.TimeOfDay timeOfDay(long total, long squares, long entries) {
+        if (entries == 0) {
+            return null;
+        }
+        double mean = (double) total / entries;
+        double variance = Math.max(0, (double) squares / entries - mean * mean);
+        int minuteOfDay = (int) Math.round(mean) % (24 * 60);
+        return new StudentSummary.TimeOfDay(LocalTime.of(minuteOfDay / 60, minuteOfDay % 60), Math.sqrt(variance));
+    }
+
+    private Double average(long total, long entries) {
+        return entries == 0 ? null : (double) total / entries;
+    }
+
+    private RoutineSummary apply(RoutineSummary summary, PeriodAggregate aggregate) {
+        summary.setRoutineCount(aggregate.getRoutineCount());
+        summary.setLoggedDaysMask(aggregate.getLoggedDaysMask());
+        summary.setScreenTimeTotal(aggregate.getScreenTimeTotal());
+        summary.setScreenTimeEntries(aggregate.getScreenTimeEntries());
+        summary.setStudyTimeTotal(aggregate.getStudyTimeTotal());
+        summary.setStudyTimeEntries(aggregate.getStudyTimeEntries());
+        summary.setWakeUpMinutesTotal(aggregate.getWakeUpMinutesTotal());
+        summary.setWakeUpMinutesSquares(aggregate.getWakeUpMinutesSquares());
+        summary.setWakeUpEntries(aggregate.getWakeUpEntries());
+        summary.setSleepMinutesTotal(aggregate.getSleepMinutesTotal());
+        summary.setSleepMinutesSquares(aggregate.getSleepMinutesSquares());
+        summary.setSleepEntries(aggregate.getSleepEntries());
+        summary.setExcellentCount(aggregate.getExcellentCount());
+        summary.setGoodCount(aggregate.getGoodCount());
+        summary.setAverageCount(aggregate.getAverageCount());
+        summary.setNeedsImprovementCount(aggregate.getNeedsImprovementCount());
+        summary.setFeedbackCount(aggregate.getFeedbackCount());
+        summary.setUpdatedAt(LocalDateTime.now());
+        return summary;
+    }
+
+    static LocalDate periodStart(PeriodType periodType, LocalDate date) {
+        return periodType == PeriodType.WEEK
+            ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+            : date.withDayOfMonth(1);
+    }
+
+    static LocalDate periodEnd(PeriodType periodType, LocalDate periodStart) {
+        return periodType == PeriodType.WEEK
+            ? periodStart.plusDays(6)
+            : periodStart.with(TemporalAdjusters.lastDayOfMonth());
+    }
+
+    private static String key(Long studentId, LocalDate periodStart) {
+        return studentId + "_" + periodStart;
+    }
+}
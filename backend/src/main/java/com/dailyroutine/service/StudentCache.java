@@ -0,0 +1,125 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.config.Tenants;
+import com.dailyroutine.dto.StudentView;
+import com.dailyroutine.dto.VersionStamp;
+import com.dailyroutine.repository.StudentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded caches of students by id and of rosters (every student, or one parent's children)
+ * together with their {@link VersionStamp}, so routine saves, ownership checks and dashboard
+ * loads don't read the students table. Students change a few times a term; every change made
+ * through {@link StudentService} calls {@link #evict(Long)}, and entries expire after a TTL
+ * like {@link UserCache}'s to bound how long a change made elsewhere goes unnoticed. Each
+ * tenant has its own caches.
+ */
+@Component
+public class StudentCache implements MeterBinder {
+
+    private static final String ALL = "all";
+
+    private final StudentRepository studentRepository;
+    private final Tenants tenants;
+    private final Map<String, Cache<Long, StudentView>> byId = new HashMap<>();
+    private final Map<String, Cache<String, Roster>> rosters = new HashMap<>();
+
+    public StudentCache(StudentRepository studentRepository, Tenants tenants,
+                        @Value("${student-cache.max-size:10000}") long maxSize,
+                        @Value("${student-cache.max-rosters:1000}") long maxRosters,
+                        @Value("${student-cache.ttl:10m}") Duration ttl) {
+        this.studentRepository = studentRepository;
+        this.tenants = tenants;
+        for (String tenant : tenants.ids()) {
+            byId.put(tenant, Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build());
+            rosters.put(tenant, Caffeine.newBuilder()
+                    .maximumSize(maxRosters)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build());
+        }
+    }
+
+    /**
+     * A roster and the stamp its ETag is made from. {@code scope} tells rosters apart in the
+     * ETag, so one parent's cached response never validates against another's.
+     */
+    public record Roster(String scope, VersionStamp stamp, List<StudentView> students) {}
+
+    // Students of the current tenant; unknown ids are not cached
+    public Optional<StudentView> get(Long id) {
+        return Optional.ofNullable(getAll(List.of(id)).get(id));
+    }
+
+    // Misses are read with one query
+    public Map<Long, StudentView> getAll(Collection<Long> ids) {
+        return byId.get(tenants.current()).getAll(ids, missing ->
+                studentRepository.findViewsByIdIn(List.copyOf(missing)).stream()
+                        .collect(Collectors.toMap(StudentView::id, Function.identity())));
+    }
+
+    // Every student when parentId is null, otherwise that parent's children
+    public Roster roster(Long parentId) {
+        String scope = parentId == null ? ALL : "parent" + parentId;
+        return rosters.get(tenants.current()).get(scope, key -> parentId == null
+                ? new Roster(key, studentRepository.findRosterVersion(), studentRepository.findAllViews())
+                : new Roster(key, studentRepository.findRosterVersionByParentId(parentId),
+                        studentRepository.findViewsByParentId(parentId)));
+    }
+
+    /**
+     * Drops the student and every roster. Inside a transaction this happens again once it
+     * completes, so a read that ran before the commit cannot leave the old row behind.
+     */
+    public void evict(Long studentId) {
+        String tenant = tenants.current();
+        evict(tenant, studentId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(tenant, studentId);
+                }
+            });
+        }
+    }
+
+    private void evict(String tenant, Long studentId) {
+        if (studentId != null) {
+            byId.get(tenant).invalidate(studentId);
+        }
+        // A student's parent is not known without a read, and writes are rare enough to drop them all
+        rosters.get(tenant).invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String tenant : tenants.ids()) {
+            new CaffeineCacheMetrics<>(byId.get(tenant), "students", Tags.of("tenant", tenant)).bindTo(registry);
+            new CaffeineCacheMetrics<>(rosters.get(tenant), "student.rosters", Tags.of("tenant", tenant))
+                    .bindTo(registry);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.dailyroutine.service;
+
+/**
+ * Published by {@link StudentService} when a student and their routines are deleted, so that
+ * {@link RoutineSearchIndex} and {@link RoutineMetricsSnapshot} can drop those routines once the
+ * transaction commits.
+ */
+public record StudentDeletedEvent(Long studentId) {
+}
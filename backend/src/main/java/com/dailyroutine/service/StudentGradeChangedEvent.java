@@ -0,0 +1,8 @@
+package com.dailyroutine.service;
+
+/**
+ * Published by {@link StudentService} when a student moves to another class grade, so that
+ * {@link RoutineMetricsSnapshot} regroups their routines once the transaction commits.
+ */
+public record StudentGradeChangedEvent(Long studentId, String classGrade) {
+}
@@ -1,54 +1,153 @@
 package com.dailyroutine.service;
 
+import com.dailyroutine.config.AuthenticatedUser;
+import com.dailyroutine.dto.RoutineView;
+import com.dailyroutine.dto.StudentFeed;
+import com.dailyroutine.dto.StudentSummary;
+import com.dailyroutine.dto.StudentView;
+import com.dailyroutine.dto.VersionStamp;
 import com.dailyroutine.entity.Student;
 import com.dailyroutine.entity.User;
+import com.dailyroutine.repository.DailyRoutineRepository;
 import com.dailyroutine.repository.StudentRepository;
 import com.dailyroutine.repository.UserRepository;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 public class StudentService {
 
+    public static final int DEFAULT_FEED_ROUTINES = 5;
+    public static final int MAX_FEED_ROUTINES = 31;
+
     private final StudentRepository studentRepository;
+    private final DailyRoutineRepository routineRepository;
+    private final StudentCache studentCache;
     private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
+    private final RoutineSummaryService summaryService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public StudentService(StudentRepository studentRepository, UserRepository userRepository) {
+    public StudentService(StudentRepository studentRepository, DailyRoutineRepository routineRepository,
+                          StudentCache studentCache, UserRepository userRepository,
+                          CurrentUserService currentUserService, RoutineSummaryService summaryService,
+                          ApplicationEventPublisher eventPublisher) {
         this.studentRepository = studentRepository;
+        this.routineRepository = routineRepository;
+        this.studentCache = studentCache;
         this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
+        this.summaryService = summaryService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public List<StudentView> getAllStudents() {
+        return roster().students();
+    }
+
+    // Admins see every student, parents their own children
+    private StudentCache.Roster roster() {
+        AuthenticatedUser currentUser = currentUserService.get();
+        return studentCache.roster(currentUser.isAdmin() ? null : currentUser.id());
+    }
+
+    /**
+     * Everything the parent home screen shows, for all of the caller's children, in two
+     * statements however many children there are. Both are restricted to students whose parent
+     * is the caller, so no separate ownership check is needed.
+     */
+    public List<StudentFeed> getHomeFeed(Integer routines) {
+        int perStudent = DEFAULT_FEED_ROUTINES;
+        if (routines != null) {
+            if (routines < 0) {
+                throw new IllegalArgumentException("routines must not be negative");
+            }
+            perStudent = Math.min(routines, MAX_FEED_ROUTINES);
+        }
+        Long parentId = currentUserService.get().id();
+
+        List<StudentRepository.FeedRow> rows = studentRepository.findFeedRowsByParentId(parentId, LocalDate.now());
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<RoutineView>> latest = perStudent == 0 ? Map.of()
+            : routineRepository.findLatestViewsByParentId(parentId, perStudent).stream()
+                .collect(Collectors.groupingBy(RoutineView::studentId));
+        return rows.stream()
+            .map(row -> new StudentFeed(row.getId(), row.getName(), row.getClassGrade(),
+                row.getLoggedToday() > 0, row.getPendingFeedback(),
+                latest.getOrDefault(row.getId(), List.of())))
+            .toList();
+    }
+
+    /**
+     * Fingerprint of what {@link #getAllStudents()} would return for the caller, together with
+     * the scope the ETag must be bound to.
+     */
+    public ScopedVersion getRosterVersion() {
+        StudentCache.Roster roster = roster();
+        return new ScopedVersion(roster.scope(), roster.stamp());
+    }
+
+    public VersionStamp getStudentVersion(Long id) {
+        return studentRepository.findVersionById(id);
     }
 
-    public List<Student> getAllStudents() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username).orElseThrow();
-        
-        if (currentUser.getRole() == User.Role.ADMIN) {
-            return studentRepository.findAll();
-        } else {
-            return studentRepository.findByParent(currentUser);
+    public record ScopedVersion(String scope, VersionStamp stamp) {
+        public String etag() {
+            return stamp.etag(scope);
         }
     }
 
-    public Student createStudent(String name, String classGrade, Long parentId) {
+    public StudentView createStudent(String name, String classGrade, Long parentId) {
         User parent = userRepository.findById(parentId).orElseThrow();
         Student student = new Student(name, classGrade, parent);
-        return studentRepository.save(student);
+        StudentView created = StudentView.from(studentRepository.save(student));
+        studentCache.evict(created.id());
+        return created;
     }
 
-    public Student updateStudent(Long id, String name, String classGrade) {
-        Student student = studentRepository.findById(id).orElseThrow();
+    @Transactional
+    public StudentView updateStudent(Long id, String name, String classGrade) {
+        Student student = studentRepository.findWithParentById(id).orElseThrow();
         student.setName(name);
+        if (!Objects.equals(student.getClassGrade(), classGrade)) {
+            eventPublisher.publishEvent(new StudentGradeChangedEvent(id, classGrade));
+        }
         student.setClassGrade(classGrade);
-        return studentRepository.save(student);
+        studentCache.evict(id);
+        return StudentView.from(studentRepository.save(student));
     }
 
+    @Transactional
     public void deleteStudent(Long id) {
+        summaryService.deleteForStudent(id);
         studentRepository.deleteById(id);
+        studentCache.evict(id);
+        eventPublisher.publishEvent(new StudentDeletedEvent(id));
+    }
+
+    /**
+     * Trend summary for a student. Parents may only read their own children.
+     */
+    public StudentSummary getSummary(Long studentId) {
+        AuthenticatedUser currentUser = currentUserService.get();
+        if (!currentUser.isAdmin() && !studentCache.get(studentId)
+                .map(student -> currentUser.id().equals(student.parentId())).orElse(false)) {
+            throw new AccessDeniedException("Not a student of the current user");
+        }
+        return summaryService.getSummary(studentId);
     }
 
-    public Student getStudentById(Long id) {
-        return studentRepository.findById(id).orElseThrow();
+    public StudentView getStudentById(Long id) {
+        return studentCache.get(id).orElseThrow();
     }
 }
\ No newline at end of file
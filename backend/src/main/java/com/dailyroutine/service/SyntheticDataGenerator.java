@@ -0,0 +1,296 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.config.TenantContext;
+import com.dailyroutine.config.Tenants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Bulk-loads a synthetic school at startup when {@code seed.enabled=true}: {@code seed.admins}
+ * admins, {@code seed.parents} parents, {@code seed.students-per-grade} students in each of
+ * {@code seed.grades}, and up to {@code seed.days} days of routines per student ending
+ * yesterday. Every seeded account uses {@code seed.password}; usernames are
+ * {@code seed-admin1..} and {@code seed-parent1..}. The school goes into the database of
+ * {@code seed.tenant}, the default tenant unless set.
+ *
+ * <p>Rows are written with JDBC batches of {@code seed.batch-size}, bypassing JPA, and the
+ * food item links and routine summaries are rebuilt afterwards. Loading happens once the
+ * context's beans are ready but before the web server starts, so the routine id sequence can
+ * be moved past the inserted ids without racing a request.
+ */
+@Component
+@ConditionalOnProperty(name = "seed.enabled", havingValue = "true")
+public class SyntheticDataGenerator implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    // Matches DailyRoutine's @SequenceGenerator allocationSize
+    private static final int ROUTINE_ID_ALLOCATION = 50;
+    private static final int SUMMARY_REFRESH_STUDENTS = 200;
+
+    private static final String INSERT_USER =
+        "INSERT INTO users (username, password, email, role, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_STUDENT =
+        "INSERT INTO students (name, class_grade, parent_id, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_ROUTINE =
+        "INSERT INTO daily_routines (id, student_id, routine_date, wake_up_time, school_time, breakfast_time, " +
+        "breakfast_items, lunch_time, lunch_items, screen_time_minutes, nap_time, study_time_minutes, " +
+        "before_class_activity, dinner_time, dinner_items, sleep_time, behavior_at_home, notes, admin_feedback, " +
+        "feedback_date, feedback_by, created_by, created_at, updated_at, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    // Explicit parameter types keep null values from costing a metadata lookup per row
+    private static final int[] USER_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP};
+    private static final int[] STUDENT_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP};
+    private static final int[] ROUTINE_TYPES = {Types.BIGINT, Types.BIGINT, Types.DATE, Types.TIME, Types.TIME,
+        Types.TIME, Types.VARCHAR, Types.TIME, Types.VARCHAR, Types.INTEGER, Types.TIME, Types.INTEGER, Types.VARCHAR,
+        Types.TIME, Types.VARCHAR, Types.TIME, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP,
+        Types.BIGINT, Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP};
+
+    private static final String[] FIRST_NAMES = {"Aarav", "Vivaan", "Aditya", "Vihaan", "Arjun", "Sai", "Reyansh",
+        "Ayaan", "Krishna", "Ishaan", "Ananya", "Diya", "Saanvi", "Aadhya", "Myra", "Anika", "Navya", "Pari", "Riya",
+        "Kiara", "Veer", "Kabir", "Meera", "Tara", "Zoya"};
+    private static final String[] LAST_NAMES = {"Sharma", "Patil", "Kale", "Deshmukh", "Joshi", "Kulkarni", "Iyer",
+        "Reddy", "Nair", "Gupta", "Mehta", "Shah", "Pawar", "Jadhav", "Rao", "Verma"};
+    private static final String[] BREAKFAST = {"Poha, milk", "Idli sambar", "Upma", "Bread, egg, juice",
+        "Paratha, curd", "Cornflakes, banana", "Dosa, chutney"};
+    private static final String[] LUNCH = {"Dal rice, sabzi", "Chapati, paneer", "Khichdi", "Rajma rice",
+        "Pulao, raita", "Chapati, mixed veg", "Curd rice"};
+    private static final String[] DINNER = {"Chapati, dal", "Dosa", "Rice, curry", "Soup, bread", "Pasta",
+        "Bhakri, pithla", "Vegetable biryani"};
+    private static final String[] ACTIVITIES = {"Drawing", "Reading", "Outdoor play", "Puzzles", "Music practice",
+        "Cycling", "Story time", "Building blocks"};
+    private static final String[] NOTES = {"Was a little tired after school.", "Finished homework without help.",
+        "Had a cold, stayed in.", "Played with cousins in the evening.", "Asked lots of questions about space."};
+    private static final String[] FEEDBACK = {"Good consistency this week, keep the bedtime steady.",
+        "Please try to reduce screen time on weekdays.", "Great effort with study time!",
+        "Breakfast looks balanced, well done.", "Let's aim for an earlier bedtime."};
+    // Weighted towards the better ratings, as real entries are
+    private static final String[] BEHAVIOR = {"EXCELLENT", "EXCELLENT", "GOOD", "GOOD", "GOOD", "GOOD", "AVERAGE",
+        "AVERAGE", "NEEDS_IMPROVEMENT"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final RoutineSummaryService summaryService;
+
+    private final int admins;
+    private final int parents;
+    private final int studentsPerGrade;
+    private final List<String> grades;
+    private final int days;
+    private final double fillRate;
+    private final double feedbackRate;
+    private final int batchSize;
+    private final String password;
+    private final long randomSeed;
+    private final String tenant;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  PasswordEncoder passwordEncoder,
+                                  RoutineSummaryService summaryService,
+                                  Tenants tenants,
+                                  @Value("${seed.admins:5}") int admins,
+                                  @Value("${seed.parents:1000}") int parents,
+                                  @Value("${seed.students-per-grade:200}") int studentsPerGrade,
+                                  @Value("${seed.grades:Nursery,Jr KG,Sr KG,Grade 1,Grade 2,Grade 3,Grade 4,Grade 5}") List<String> grades,
+                                  @Value("${seed.days:180}") int days,
+                                  @Value("${seed.fill-rate:0.9}") double fillRate,
+                                  @Value("${seed.feedback-rate:0.3}") double feedbackRate,
+                                  @Value("${seed.batch-size:1000}") int batchSize,
+                                  @Value("${seed.password:password}") String password,
+                                  @Value("${seed.random-seed:42}") long randomSeed,
+                                  @Value("${seed.tenant:}") String tenant) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.summaryService = summaryService;
+        this.admins = admins;
+        this.parents = parents;
+        this.studentsPerGrade = studentsPerGrade;
+        this.grades = grades;
+        this.days = days;
+        this.fillRate = fillRate;
+        this.feedbackRate = feedbackRate;
+        this.batchSize = batchSize;
+        this.password = password;
+        this.randomSeed = randomSeed;
+        this.tenant = tenant.isBlank() ? tenants.defaultTenant() : tenant;
+        if (!tenants.exists(this.tenant)) {
+            throw new IllegalStateException("Unknown seed.tenant: " + tenant);
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        TenantContext.run(tenant, this::seed);
+    }
+
+    private void seed() {
+        Integer existing = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM users WHERE username IN ('seed-admin1', 'seed-parent1')", Integer.class);
+        if (existing != null && existing > 0) {
+            log.info("Synthetic data already present, skipping seed");
+            return;
+        }
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(randomSeed);
+
+        // One hash for every account: BCrypt per row would dominate the load time
+        String passwordHash = passwordEncoder.encode(password);
+        List<Long> adminIds = insertUsers("seed-admin", admins, "ADMIN", passwordHash);
+        List<Long> parentIds = insertUsers("seed-parent", parents, "PARENT", passwordHash);
+        List<SeedStudent> students = insertStudents(parentIds, random);
+        long lastRoutineId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM daily_routines", Long.class);
+        long routines = insertRoutines(students, adminIds, random);
+        FoodItemBackfill.run(jdbcTemplate, lastRoutineId, batchSize);
+        refreshSummaries(students);
+
+        log.info("Seeded {} admins, {} parents, {} students and {} routines for tenant {} in {} ms", admins, parents,
+            students.size(), routines, tenant, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private List<Long> insertUsers(String prefix, int count, String role, String passwordHash) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            rows.add(new Object[] {prefix + i, passwordHash, prefix + i + "@school.example", role, now});
+        }
+        Long lastId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
+        batchInsert(INSERT_USER, USER_TYPES, rows);
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE id > ? ORDER BY id", Long.class, lastId);
+    }
+
+    private List<SeedStudent> insertStudents(List<Long> parentIds, SplittableRandom random) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        int index = 0;
+        for (String grade : grades) {
+            for (int i = 0; i < studentsPerGrade; i++, index++) {
+                String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                Long parentId = parentIds.isEmpty() ? null : parentIds.get(index % parentIds.size());
+                rows.add(new Object[] {name, grade, parentId, now, now});
+            }
+        }
+        Long lastId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM students", Long.class);
+        batchInsert(INSERT_STUDENT, STUDENT_TYPES, rows);
+
+        List<SeedStudent> students = new ArrayList<>(rows.size());
+        jdbcTemplate.query("SELECT id, parent_id FROM students WHERE id > ? ORDER BY id",
+            rs -> {
+                long parentId = rs.getLong("parent_id");
+                students.add(new SeedStudent(rs.getLong("id"), rs.wasNull() ? null : parentId,
+                    LocalTime.of(6, 0).plusMinutes(random.nextInt(90)),
+                    LocalTime.of(20, 0).plusMinutes(random.nextInt(105)),
+                    30 + random.nextInt(120)));
+            }, lastId);
+        return students;
+    }
+
+    private long insertRoutines(List<SeedStudent> students, List<Long> adminIds, SplittableRandom random) {
+        long nextId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM daily_routines", Long.class) + 1;
+        LocalDate firstDay = LocalDate.now().minusDays(days);
+        long inserted = 0;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int day = 0; day < days; day++) {
+            LocalDate date = firstDay.plusDays(day);
+            for (SeedStudent student : students) {
+                if (random.nextDouble() >= fillRate) {
+                    continue;
+                }
+                batch.add(routineRow(nextId++, student, date, adminIds, random));
+                if (batch.size() == batchSize) {
+                    batchInsert(INSERT_ROUTINE, ROUTINE_TYPES, batch);
+                    inserted += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        batchInsert(INSERT_ROUTINE, ROUTINE_TYPES, batch);
+        inserted += batch.size();
+
+        // Hibernate's pooled optimizer hands out (value - allocation, value], so restart past every inserted id
+        jdbcTemplate.execute("ALTER SEQUENCE daily_routines_seq RESTART WITH " + (nextId + ROUTINE_ID_ALLOCATION));
+        return inserted;
+    }
+
+    private Object[] routineRow(long id, SeedStudent student, LocalDate date, List<Long> adminIds,
+                                SplittableRandom random) {
+        boolean weekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+        LocalTime wakeUp = student.wakeUp().plusMinutes((weekend ? 45 : 0) + random.nextInt(31) - 15);
+        LocalTime sleep = student.sleep().plusMinutes((weekend ? 30 : 0) + random.nextInt(41) - 20);
+        int screen = Math.max(0, student.screenMinutes() + (weekend ? 45 : 0) + random.nextInt(61) - 30);
+        LocalDateTime loggedAt = date.atTime(21, 0).plusMinutes(random.nextInt(120));
+
+        boolean feedback = !adminIds.isEmpty() && random.nextDouble() < feedbackRate;
+        return new Object[] {
+            id,
+            student.id(),
+            Date.valueOf(date),
+            Time.valueOf(wakeUp),
+            weekend ? null : Time.valueOf(LocalTime.of(8, 30)),
+            Time.valueOf(wakeUp.plusMinutes(30 + random.nextInt(30))),
+            pick(BREAKFAST, random),
+            Time.valueOf(LocalTime.of(12, 30).plusMinutes(random.nextInt(60))),
+            pick(LUNCH, random),
+            screen,
+            random.nextInt(3) == 0 ? Time.valueOf(LocalTime.of(14, 0).plusMinutes(random.nextInt(60))) : null,
+            weekend ? random.nextInt(45) : 20 + random.nextInt(90),
+            random.nextInt(2) == 0 ? pick(ACTIVITIES, random) : null,
+            Time.valueOf(LocalTime.of(19, 15).plusMinutes(random.nextInt(75))),
+            pick(DINNER, random),
+            Time.valueOf(sleep),
+            pick(BEHAVIOR, random),
+            random.nextInt(5) == 0 ? pick(NOTES, random) : null,
+            feedback ? pick(FEEDBACK, random) : null,
+            feedback ? Timestamp.valueOf(loggedAt.plusHours(12)) : null,
+            feedback ? adminIds.get(random.nextInt(adminIds.size())) : null,
+            student.parentId(),
+            Timestamp.valueOf(loggedAt),
+            Timestamp.valueOf(loggedAt)
+        };
+    }
+
+    private void refreshSummaries(List<SeedStudent> students) {
+        List<LocalDate> dates = LocalDate.now().minusDays(days).datesUntil(LocalDate.now()).toList();
+        for (int from = 0; from < students.size(); from += SUMMARY_REFRESH_STUDENTS) {
+            List<Long> ids = students.subList(from, Math.min(from + SUMMARY_REFRESH_STUDENTS, students.size()))
+                .stream().map(SeedStudent::id).toList();
+            summaryService.refresh(ids, dates);
+        }
+    }
+
+    private void batchInsert(String sql, int[] types, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows, types));
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private record SeedStudent(long id, Long parentId, LocalTime wakeUp, LocalTime sleep, int screenMinutes) {}
+}
@@ -0,0 +1,52 @@
+package com.dailyroutine.service;
+
+import com.dailyroutine.config.AuthenticatedUser;
+import com.dailyroutine.config.Tenants;
+import com.dailyroutine.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded username → {@link AuthenticatedUser} cache used to authenticate requests without
+ * querying the users table. Unknown usernames are not cached. Entries are evicted when a
+ * user is written through {@link AuthService} and otherwise expire after a short TTL, which
+ * bounds how long a change made directly in the database can go unnoticed. Each tenant has
+ * its own cache, so a large school cannot evict a small one's users.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Tenants tenants;
+    private final Map<String, Cache<String, AuthenticatedUser>> byUsername = new HashMap<>();
+
+    public UserCache(UserRepository userRepository, Tenants tenants,
+                     @Value("${user-cache.max-size:1000}") long maxSize,
+                     @Value("${user-cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.tenants = tenants;
+        for (String tenant : tenants.ids()) {
+            byUsername.put(tenant, Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(ttl)
+                    .build());
+        }
+    }
+
+    // Users of the current tenant
+    public Optional<AuthenticatedUser> get(String username) {
+        return Optional.ofNullable(byUsername.get(tenants.current()).get(username, key ->
+                userRepository.findByUsername(key).map(AuthenticatedUser::from).orElse(null)));
+    }
+
+    public void evict(String username) {
+        byUsername.get(tenants.current()).invalidate(username);
+    }
+}
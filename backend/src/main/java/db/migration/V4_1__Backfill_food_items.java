@@ -0,0 +1,20 @@
+package db.migration;
+
+import com.dailyroutine.service.FoodItemBackfill;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Parses the meal text of the routines that existed before V4 into food items. Runs inside the
+ * migration's transaction on Flyway's own connection.
+ */
+public class V4_1__Backfill_food_items extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        FoodItemBackfill.run(jdbcTemplate, 0, 1000);
+    }
+}
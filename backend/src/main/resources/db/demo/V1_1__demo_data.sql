@@ -1,3 +1,5 @@
+-- Demo accounts and students for local runs; drop classpath:db/demo from spring.flyway.locations to skip
+
 -- Insert admin user
 INSERT INTO users (username, password, email, role, created_at) VALUES 
 ('admin', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2uheWG/igi.', 'admin@example.com', 'ADMIN', NOW());
@@ -8,7 +10,7 @@ INSERT INTO users (username, password, email, role, created_at) VALUES
 ('parent2', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2uheWG/igi.', 'parent2@example.com', 'PARENT', NOW());
 
 -- Insert students
-INSERT INTO students (name, class_grade, parent_id, created_at) VALUES 
-('Veerendra Kale', 'Sr KG', (SELECT id FROM users WHERE username = 'yogesh'), NOW()),
-('Vaibhavi Phatangare', 'Jr KG', (SELECT id FROM users WHERE username = 'yogesh'), NOW()),
-('Mike Johnson', 'Grade 4', (SELECT id FROM users WHERE username = 'parent2'), NOW());
\ No newline at end of file
+INSERT INTO students (name, class_grade, parent_id, created_at, updated_at, version) VALUES 
+('Veerendra Kale', 'Sr KG', (SELECT id FROM users WHERE username = 'yogesh'), NOW(), NOW(), 0),
+('Vaibhavi Phatangare', 'Jr KG', (SELECT id FROM users WHERE username = 'yogesh'), NOW(), NOW(), 0),
+('Mike Johnson', 'Grade 4', (SELECT id FROM users WHERE username = 'parent2'), NOW(), NOW(), 0);
\ No newline at end of file
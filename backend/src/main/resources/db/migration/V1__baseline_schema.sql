@@ -0,0 +1,88 @@
+-- Schema as previously generated by Hibernate (ddl-auto: create-drop)
+
+CREATE SEQUENCE daily_routines_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE routine_summaries_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255),
+    password VARCHAR(255),
+    email VARCHAR(255),
+    role VARCHAR(255) CHECK (role IN ('ADMIN', 'PARENT')),
+    created_at TIMESTAMP(6),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE students (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255),
+    class_grade VARCHAR(255),
+    parent_id BIGINT,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    version BIGINT,
+    CONSTRAINT pk_students PRIMARY KEY (id),
+    CONSTRAINT fk_students_parent FOREIGN KEY (parent_id) REFERENCES users (id)
+);
+
+CREATE TABLE daily_routines (
+    id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    routine_date DATE NOT NULL,
+    wake_up_time TIME(6),
+    school_time TIME(6),
+    breakfast_time TIME(6),
+    breakfast_items TEXT,
+    lunch_time TIME(6),
+    lunch_items TEXT,
+    screen_time_minutes INTEGER,
+    nap_time TIME(6),
+    study_time_minutes INTEGER,
+    before_class_activity TEXT,
+    dinner_time TIME(6),
+    dinner_items TEXT,
+    sleep_time TIME(6),
+    behavior_at_home VARCHAR(255) CHECK (behavior_at_home IN ('EXCELLENT', 'GOOD', 'AVERAGE', 'NEEDS_IMPROVEMENT')),
+    notes TEXT,
+    admin_feedback TEXT,
+    feedback_date TIMESTAMP(6),
+    feedback_by BIGINT,
+    created_by BIGINT,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    version BIGINT,
+    CONSTRAINT pk_daily_routines PRIMARY KEY (id),
+    CONSTRAINT uk_daily_routines_student_date UNIQUE (student_id, routine_date),
+    CONSTRAINT fk_daily_routines_student FOREIGN KEY (student_id) REFERENCES students (id),
+    CONSTRAINT fk_daily_routines_feedback_by FOREIGN KEY (feedback_by) REFERENCES users (id),
+    CONSTRAINT fk_daily_routines_created_by FOREIGN KEY (created_by) REFERENCES users (id)
+);
+
+CREATE TABLE routine_summaries (
+    id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    period_type VARCHAR(255) NOT NULL CHECK (period_type IN ('WEEK', 'MONTH')),
+    period_start DATE NOT NULL,
+    routine_count BIGINT,
+    logged_days_mask BIGINT,
+    screen_time_total BIGINT,
+    screen_time_entries BIGINT,
+    study_time_total BIGINT,
+    study_time_entries BIGINT,
+    wake_up_minutes_total BIGINT,
+    wake_up_minutes_squares BIGINT,
+    wake_up_entries BIGINT,
+    sleep_minutes_total BIGINT,
+    sleep_minutes_squares BIGINT,
+    sleep_entries BIGINT,
+    excellent_count BIGINT,
+    good_count BIGINT,
+    average_count BIGINT,
+    needs_improvement_count BIGINT,
+    feedback_count BIGINT,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT pk_routine_summaries PRIMARY KEY (id),
+    CONSTRAINT uk_routine_summaries_period UNIQUE (student_id, period_type, period_start)
+);
@@ -0,0 +1,7 @@
+-- Indexes for repository access paths that the baseline constraints do not already serve.
+-- Every foreign key and unique constraint in V1 is backed by an index of its own, which covers
+-- the parent, student history (student_id, routine_date) and summary lookups; QueryPlanTest
+-- (run by mvn test) fails if any of those paths falls back to a table scan.
+
+-- Admin day view: findDatePage (keyset on id), findDateVersion
+CREATE INDEX idx_daily_routines_date_id ON daily_routines (routine_date, id);
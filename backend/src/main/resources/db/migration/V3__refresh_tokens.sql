@@ -0,0 +1,20 @@
+CREATE SEQUENCE refresh_tokens_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE refresh_tokens (
+    id BIGINT NOT NULL,
+    token_hash VARCHAR(255) NOT NULL,
+    family_id VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    revoked_at TIMESTAMP(6),
+    created_at TIMESTAMP(6),
+    CONSTRAINT pk_refresh_tokens PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- Revoking a rotation chain on logout or reuse: revokeFamily
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens (family_id);
+
+-- Hourly purge of expired tokens: deleteExpired
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
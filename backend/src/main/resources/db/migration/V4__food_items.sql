@@ -0,0 +1,26 @@
+-- Dictionary of meal items parsed from the breakfast, lunch and dinner text. Each distinct item is
+-- stored once; routines refer to it by id, so rollups group and join on integers, not strings.
+CREATE TABLE food_items (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    -- Spelling of the first occurrence, for display
+    name VARCHAR(100) NOT NULL,
+    -- Lower-case, whitespace-collapsed form that occurrences are matched on
+    normalized_name VARCHAR(100) NOT NULL,
+    category VARCHAR(20) CHECK (category IN ('GRAIN', 'PROTEIN', 'DAIRY', 'FRUIT', 'VEGETABLE', 'MIXED_DISH',
+        'SNACK', 'SWEET', 'BEVERAGE', 'OTHER')),
+    created_at TIMESTAMP(6),
+    CONSTRAINT pk_food_items PRIMARY KEY (id),
+    CONSTRAINT uk_food_items_normalized_name UNIQUE (normalized_name)
+);
+
+-- Food items of a routine, one row per item however many meals included it. meals has bit
+-- (1 << ordinal of DailyRoutine.Meal) set for each: 1 breakfast, 2 lunch, 4 dinner. One row per
+-- item lets rollups count routines with COUNT(*) instead of COUNT(DISTINCT). Rows go with their routine.
+CREATE TABLE routine_food_items (
+    routine_id BIGINT NOT NULL,
+    food_item_id BIGINT NOT NULL,
+    meals TINYINT NOT NULL,
+    CONSTRAINT pk_routine_food_items PRIMARY KEY (routine_id, food_item_id),
+    CONSTRAINT fk_routine_food_items_routine FOREIGN KEY (routine_id) REFERENCES daily_routines (id) ON DELETE CASCADE,
+    CONSTRAINT fk_routine_food_items_food_item FOREIGN KEY (food_item_id) REFERENCES food_items (id)
+);
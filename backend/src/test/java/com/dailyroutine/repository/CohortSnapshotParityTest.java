@@ -0,0 +1,253 @@
+package com.dailyroutine.repository;
+
+import com.dailyroutine.config.AuthenticatedUser;
+import com.dailyroutine.dto.CohortStats;
+import com.dailyroutine.dto.RoutineRequest;
+import com.dailyroutine.entity.DailyRoutine;
+import com.dailyroutine.entity.User;
+import com.dailyroutine.repository.DailyRoutineRepository.CohortStatsRow;
+import com.dailyroutine.service.RoutineMetricsSnapshot;
+import com.dailyroutine.service.RoutineService;
+import com.dailyroutine.service.StudentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Checks that {@link RoutineMetricsSnapshot#cohorts} returns what
+ * {@link DailyRoutineRepository#aggregateCohorts} does, since the analytics endpoint switches
+ * from one to the other once the snapshot has loaded. Compares every bucket size with and
+ * without a grade filter over ranges that cross month and ISO-week boundaries, first after the
+ * startup load and then after saves, deletes and grade changes have gone through the
+ * snapshot's incremental updates.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    // Its own database, so the seeded data doesn't meet another test's
+    "spring.datasource.url=jdbc:h2:mem:cohort-parity",
+    "seed.enabled=true",
+    "seed.parents=60",
+    "seed.students-per-grade=15",
+    "seed.days=75",
+    "seed.fill-rate=0.85",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.dailyroutine=WARN",
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class CohortSnapshotParityTest {
+
+    private static final String GRADE = "Grade 1";
+
+    @TestConfiguration
+    static class UnrecordedMetrics {
+        // Runs after the seed and before the snapshot starts loading, so the load reads these gaps
+        @Bean
+        ApplicationRunner clearSomeMetrics(JdbcTemplate jdbc) {
+            return args -> {
+                jdbc.update("UPDATE daily_routines SET screen_time_minutes = NULL WHERE MOD(id, 7) = 0");
+                jdbc.update("UPDATE daily_routines SET study_time_minutes = NULL WHERE MOD(id, 11) = 0");
+                jdbc.update("UPDATE daily_routines SET wake_up_time = NULL WHERE MOD(id, 13) = 0");
+                jdbc.update("UPDATE daily_routines SET behavior_at_home = NULL WHERE MOD(id, 5) = 0");
+                // Past midnight, which both sides count as the following day
+                jdbc.update("UPDATE daily_routines SET sleep_time = '00:40:00' WHERE MOD(id, 17) = 0");
+                jdbc.update("UPDATE daily_routines SET sleep_time = NULL WHERE MOD(id, 19) = 0");
+                // One cohort-day where no routine recorded anything
+                jdbc.update("UPDATE daily_routines SET screen_time_minutes = NULL, study_time_minutes = NULL, " +
+                    "wake_up_time = NULL, sleep_time = NULL, behavior_at_home = NULL " +
+                    "WHERE routine_date = (SELECT MAX(routine_date) - 3 FROM daily_routines) " +
+                    "AND student_id IN (SELECT id FROM students WHERE class_grade = 'Nursery')");
+            };
+        }
+    }
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private DailyRoutineRepository routineRepository;
+    @Autowired private RoutineMetricsSnapshot metricsSnapshot;
+    @Autowired private RoutineService routineService;
+    @Autowired private StudentService studentService;
+
+    private LocalDate first;
+    private LocalDate last;
+
+    @BeforeAll
+    void awaitLoad() throws InterruptedException {
+        assertTrue(metricsSnapshot.awaitReady(Duration.ofMinutes(5)), "Analytics snapshot was not loaded");
+        first = jdbc.queryForObject("SELECT MIN(routine_date) FROM daily_routines", LocalDate.class);
+        last = jdbc.queryForObject("SELECT MAX(routine_date) FROM daily_routines", LocalDate.class);
+    }
+
+    @BeforeEach
+    void signInAsAdmin() {
+        Long adminId = jdbc.queryForObject("SELECT id FROM users WHERE username = 'seed-admin1'", Long.class);
+        AuthenticatedUser admin = new AuthenticatedUser(adminId, "seed-admin1", User.Role.ADMIN);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @Order(1)
+    void matchesAfterLoad() {
+        assertAllRangesMatch();
+    }
+
+    @Test
+    @Order(2)
+    void matchesAfterIncrementalUpdates() {
+        LocalDate busyDay = jdbc.queryForObject(
+            "SELECT routine_date FROM daily_routines GROUP BY routine_date ORDER BY COUNT(*) DESC LIMIT 1",
+            LocalDate.class);
+
+        // Overwrite existing routines, with recorded values and with every metric left out
+        List<Long[]> existing = jdbc.query(
+            "SELECT id, student_id FROM daily_routines WHERE routine_date = ? ORDER BY id LIMIT 6",
+            (rs, row) -> new Long[] {rs.getLong(1), rs.getLong(2)}, busyDay);
+        for (int i = 0; i < 3; i++) {
+            routineService.saveRoutine(routine(existing.get(i)[1], busyDay, i % 2 == 0));
+        }
+
+        // Fill gaps: a missed day inside the range, and a day before the seeded range opens a new bucket
+        List<Long[]> missed = jdbc.query(
+            "SELECT s.id, d.routine_date FROM students s CROSS JOIN " +
+            "(SELECT DISTINCT routine_date FROM daily_routines) d " +
+            "WHERE NOT EXISTS (SELECT 1 FROM daily_routines r WHERE r.student_id = s.id " +
+            "AND r.routine_date = d.routine_date) ORDER BY s.id, d.routine_date LIMIT 4",
+            (rs, row) -> new Long[] {rs.getLong(1), rs.getObject(2, LocalDate.class).toEpochDay()});
+        for (int i = 0; i < missed.size(); i++) {
+            routineService.saveRoutine(routine(missed.get(i)[0], LocalDate.ofEpochDay(missed.get(i)[1]), i % 2 == 1));
+        }
+        routineService.saveRoutine(routine(existing.get(3)[1], first.minusDays(1), true));
+
+        // The batch path publishes the same events through its own code
+        routineService.saveRoutines(List.of(
+            routine(existing.get(4)[1], busyDay.minusDays(1), false),
+            routine(existing.get(4)[1], busyDay.minusDays(2), true)));
+
+        routineService.deleteRoutine(existing.get(5)[0]);
+        Long oldest = jdbc.queryForObject(
+            "SELECT MIN(id) FROM daily_routines WHERE routine_date = ?", Long.class, first);
+        routineService.deleteRoutine(oldest);
+
+        // A move between grades, and one into a grade the snapshot has not seen yet
+        List<Long> movers = jdbc.queryForList(
+            "SELECT id FROM students WHERE class_grade = ? ORDER BY id LIMIT 2", Long.class, GRADE);
+        studentService.updateStudent(movers.get(0), "Moved Child", "Grade 2");
+        studentService.updateStudent(movers.get(1), "New Grade Child", "Grade 6");
+
+        Long leaver = jdbc.queryForObject(
+            "SELECT MAX(id) FROM students WHERE class_grade = 'Grade 3'", Long.class);
+        studentService.deleteStudent(leaver);
+
+        first = first.minusDays(1);
+        assertAllRangesMatch();
+        assertMatches(CohortStats.Bucket.DAY, first, last, "Grade 6");
+    }
+
+    private void assertAllRangesMatch() {
+        // The whole range, and one that starts and ends mid-week and mid-month
+        LocalDate from = last.minusDays(45);
+        while (from.getDayOfWeek() != DayOfWeek.WEDNESDAY || from.getDayOfMonth() == 1) {
+            from = from.plusDays(1);
+        }
+        LocalDate to = from.plusDays(33);
+        for (CohortStats.Bucket bucket : CohortStats.Bucket.values()) {
+            for (String grade : new String[] {null, GRADE}) {
+                assertMatches(bucket, first, last, grade);
+                assertMatches(bucket, from, to, grade);
+            }
+        }
+        assertMatches(CohortStats.Bucket.DAY, last.minusDays(3), last.minusDays(3), "Nursery");
+        assertMatches(CohortStats.Bucket.WEEK, first, last, "No Such Grade");
+    }
+
+    private void assertMatches(CohortStats.Bucket bucket, LocalDate from, LocalDate to, String grade) {
+        String query = bucket + " " + from + ".." + to + (grade != null ? " " + grade : "");
+        List<CohortStatsRow> expected = routineRepository.aggregateCohorts(bucket.name(), from, to, grade);
+        List<CohortStats> actual = metricsSnapshot.cohorts(from, to, bucket, grade);
+        assertEquals(expected.size(), actual.size(), query + ": cohort count");
+        for (int i = 0; i < expected.size(); i++) {
+            CohortStatsRow row = expected.get(i);
+            CohortStats stats = actual.get(i);
+            String cohort = query + ": " + row.getBucketStart() + " " + row.getClassGrade();
+            assertEquals(row.getBucketStart(), stats.bucketStart(), cohort + " bucket");
+            assertEquals(row.getClassGrade(), stats.classGrade(), cohort + " grade");
+            assertEquals(row.getRoutines(), stats.routines(), cohort + " routines");
+            assertEquals(row.getStudents(), stats.students(), cohort + " students");
+            assertMetric(cohort + " screen time", stats.screenTimeMinutes(),
+                row.getAvgScreenTime(), row.getP50ScreenTime(), row.getP90ScreenTime());
+            assertMetric(cohort + " study time", stats.studyTimeMinutes(),
+                row.getAvgStudyTime(), row.getP50StudyTime(), row.getP90StudyTime());
+            assertMetric(cohort + " wake up", stats.wakeUpMinuteOfDay(),
+                row.getAvgWakeUp(), row.getP50WakeUp(), row.getP90WakeUp());
+            assertMetric(cohort + " sleep", stats.sleepMinuteOfDay(),
+                row.getAvgSleep(), row.getP50Sleep(), row.getP90Sleep());
+            assertEquals(row.getExcellent(), behavior(stats, DailyRoutine.Behavior.EXCELLENT), cohort + " EXCELLENT");
+            assertEquals(row.getGood(), behavior(stats, DailyRoutine.Behavior.GOOD), cohort + " GOOD");
+            assertEquals(row.getAverage(), behavior(stats, DailyRoutine.Behavior.AVERAGE), cohort + " AVERAGE");
+            assertEquals(row.getNeedsImprovement(), behavior(stats, DailyRoutine.Behavior.NEEDS_IMPROVEMENT),
+                cohort + " NEEDS_IMPROVEMENT");
+            assertEquals(row.getBehaviorNotRecorded(), stats.behaviorNotRecorded(), cohort + " behavior not recorded");
+        }
+    }
+
+    private static void assertMetric(String name, CohortStats.MetricSummary summary, Double avg, Double p50, Double p90) {
+        assertClose(name + " avg", avg, summary.avg());
+        assertClose(name + " p50", p50, summary.p50());
+        assertClose(name + " p90", p90, summary.p90());
+    }
+
+    // Sums are added up in a different order on each side
+    private static void assertClose(String name, Double expected, Double actual) {
+        if (expected == null || actual == null) {
+            assertEquals(expected, actual, name);
+        } else if (Math.abs(expected - actual) > 1e-9 * Math.max(1, Math.abs(expected))) {
+            fail(name + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    private static long behavior(CohortStats stats, DailyRoutine.Behavior behavior) {
+        return stats.behavior().getOrDefault(behavior, 0L);
+    }
+
+    private static RoutineRequest routine(Long studentId, LocalDate date, boolean recorded) {
+        RoutineRequest request = new RoutineRequest();
+        request.setStudentId(studentId);
+        request.setRoutineDate(date);
+        if (recorded) {
+            request.setWakeUpTime(LocalTime.of(6, 5));
+            request.setSleepTime(LocalTime.of(1, 10));
+            request.setScreenTimeMinutes(240);
+            request.setStudyTimeMinutes(0);
+            request.setBehaviorAtHome(DailyRoutine.Behavior.NEEDS_IMPROVEMENT);
+        }
+        return request;
+    }
+}
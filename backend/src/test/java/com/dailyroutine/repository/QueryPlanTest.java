@@ -0,0 +1,276 @@
+package com.dailyroutine.repository;
+
+import com.dailyroutine.dto.RoutineRequest;
+import com.dailyroutine.dto.RoutineSearchDocument;
+import com.dailyroutine.dto.RoutineView;
+import com.dailyroutine.entity.DailyRoutine;
+import com.dailyroutine.entity.RoutineSummary.PeriodType;
+import com.dailyroutine.service.RoutineSearchIndex;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Query plan regression test. Boots the application without a web server on a synthetic
+ * data set, runs every query method declared on the repositories once, and replays each SQL
+ * statement they issued under {@code EXPLAIN}. A probe fails when its plan scans a table it
+ * does not explicitly allow, and a repository query method without a probe fails the suite.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    // Its own database, so the seeded data doesn't meet another test's
+    "spring.datasource.url=jdbc:h2:mem:query-plans",
+    "seed.enabled=true",
+    "seed.parents=200",
+    "seed.students-per-grade=50",
+    "seed.days=120",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.dailyroutine=INFO",
+})
+@ContextConfiguration(initializers = StatementRecorder.Initializer.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    // H2 prints the access path under each FROM/JOIN table; without a ": condition" it reads every
+    // row, either as /* PUBLIC.TABLE.tableScan */ or by walking an index for its sort order
+    private static final Pattern TABLE_SCAN =
+        Pattern.compile("\"([A-Z_]+)\"(?: \"?\\w+\"?)?\\s*\\n\\s*/\\* [A-Z_]+\\.[\\w.]+ \\*/");
+    // A write read back through a delta table only plans the outer select; the write's own lookup is
+    // what matters, so that is explained instead. Its parameters keep their positions
+    private static final Pattern DELTA_TABLE =
+        Pattern.compile("SELECT [^?]* FROM (?:OLD|NEW|FINAL) TABLE \\((.*)\\)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private record Probe(String repository, String method, Set<String> allowedScans, Runnable call) {
+        String name() {
+            return repository + "." + method;
+        }
+    }
+
+    @Autowired private StatementRecorder recorder;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private TransactionTemplate tx;
+    @Autowired private DataSource dataSource;
+    @Autowired private RoutineSearchIndex searchIndex;
+    @Autowired private DailyRoutineRepository routines;
+    @Autowired private StudentRepository students;
+    @Autowired private RoutineSummaryRepository summaries;
+    @Autowired private UserRepository users;
+    @Autowired private RefreshTokenRepository refreshTokens;
+    @Autowired private FoodItemRepository foodItems;
+
+    @BeforeAll
+    void analyze() throws InterruptedException {
+        // The search index is rebuilt in the background; its reads must not land in a probe
+        assertTrue(searchIndex.awaitReady(Duration.ofMinutes(5)), "Search index was not built");
+        // Give the optimizer real selectivity figures for the freshly loaded data
+        jdbc.execute("ANALYZE");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> queryPlans() {
+        return probes().stream().map(probe -> dynamicTest(probe.name(), () -> {
+            recorder.start();
+            tx.executeWithoutResult(status -> {
+                probe.call().run();
+                status.setRollbackOnly();
+            });
+            List<String> plans = new ArrayList<>();
+            Set<String> scans = explain(recorder.stop(), plans);
+            assertTrue(probe.allowedScans().containsAll(scans), () -> probe.name() + " scans " + scans
+                + " but only " + probe.allowedScans() + " are allowed. Plans:\n" + String.join("\n\n", plans));
+        }));
+    }
+
+    // Query methods declared directly on a repository interface; inherited CRUD methods go by primary key
+    @Test
+    void everyQueryMethodHasAProbe() {
+        Set<String> covered = new TreeSet<>();
+        probes().forEach(probe -> covered.add(probe.name()));
+        List<String> uncovered = new ArrayList<>();
+        for (Class<?> repository : List.of(DailyRoutineRepository.class, StudentRepository.class,
+                RoutineSummaryRepository.class, UserRepository.class, RefreshTokenRepository.class,
+                FoodItemRepository.class)) {
+            Arrays.stream(repository.getDeclaredMethods())
+                .filter(method -> !method.isDefault() && !method.isSynthetic())
+                .map(Method::getName)
+                .distinct()
+                .map(name -> repository.getSimpleName() + "." + name)
+                .filter(name -> !covered.contains(name))
+                .forEach(uncovered::add);
+        }
+        assertEquals(List.of(), uncovered, "Query methods without a probe in QueryPlanTest");
+    }
+
+    private List<Probe> probes() {
+        // A busy day, a student and parent with history, and a routine with feedback
+        LocalDate day = jdbc.queryForObject(
+            "SELECT routine_date FROM daily_routines GROUP BY routine_date ORDER BY COUNT(*) DESC LIMIT 1",
+            LocalDate.class);
+        Long studentId = jdbc.queryForObject(
+            "SELECT student_id FROM daily_routines GROUP BY student_id ORDER BY COUNT(*) DESC LIMIT 1", Long.class);
+        Long parentId = jdbc.queryForObject("SELECT parent_id FROM students WHERE id = ?", Long.class, studentId);
+        Long routineId = jdbc.queryForObject(
+            "SELECT MIN(id) FROM daily_routines WHERE admin_feedback IS NOT NULL", Long.class);
+        String username = jdbc.queryForObject("SELECT username FROM users WHERE id = ?", String.class, parentId);
+        String email = jdbc.queryForObject("SELECT email FROM users WHERE id = ?", String.class, parentId);
+        LocalDate weekStart = day.minusDays(day.getDayOfWeek().getValue() - 1);
+        List<Long> studentIds = List.of(studentId, studentId + 1, studentId + 2);
+
+        Set<String> none = Set.of();
+        List<Probe> probes = new ArrayList<>();
+        String routineRepo = "DailyRoutineRepository";
+        probes.add(new Probe(routineRepo, "findByStudentIdAndRoutineDate", none,
+            () -> routines.findByStudentIdAndRoutineDate(studentId, day)));
+        RoutineRequest upsert = new RoutineRequest();
+        upsert.setStudentId(studentId);
+        upsert.setRoutineDate(day);
+        upsert.setScreenTimeMinutes(30);
+        probes.add(new Probe(routineRepo, "upsert", none,
+            () -> routines.upsert(upsert, parentId, LocalDateTime.now())));
+        probes.add(new Probe(routineRepo, "findByStudentIdAndRoutineDateBetween", none,
+            () -> routines.findByStudentIdAndRoutineDateBetween(studentId, day.minusDays(29), day)));
+        probes.add(new Probe(routineRepo, "findByStudentIdInAndRoutineDateIn", none,
+            () -> routines.findByStudentIdInAndRoutineDateIn(studentIds, List.of(day, day.minusDays(1)))));
+        probes.add(new Probe(routineRepo, "findWithStudentById", none, () -> routines.findWithStudentById(routineId)));
+        probes.add(new Probe(routineRepo, "findStudentHistoryVersion", none,
+            () -> routines.findStudentHistoryVersion(studentId)));
+        probes.add(new Probe(routineRepo, "findDateVersion", none, () -> routines.findDateVersion(day)));
+        // Cohorts group every student by grade, so the join walks the roster and seeks each history
+        probes.add(new Probe(routineRepo, "aggregateCohorts", Set.of("STUDENTS"),
+            () -> routines.aggregateCohorts("DAY", day.minusDays(6), day, null)));
+        probes.add(new Probe(routineRepo, "findStudentHistoryPage", none,
+            () -> routines.findStudentHistoryPage(studentId, LocalDate.of(1900, 1, 1), LocalDate.of(9999, 12, 31),
+                LocalDate.of(9999, 12, 31), Long.MAX_VALUE, PageRequest.ofSize(51))));
+        probes.add(new Probe(routineRepo, "findDatePage", none,
+            () -> routines.findDatePage(day, 0L, null, null, PageRequest.ofSize(51))));
+        probes.add(new Probe(routineRepo, "streamForExport", none, () -> {
+            try (Stream<RoutineView> rows = routines.streamForExport(day.minusDays(6), day, null)) {
+                rows.forEach(row -> { });
+            }
+        }));
+        probes.add(new Probe(routineRepo, "streamSearchDocuments", Set.of("DAILY_ROUTINES"), () -> {
+            try (Stream<RoutineSearchDocument> documents = routines.streamSearchDocuments()) {
+                documents.limit(1000).forEach(document -> { });
+            }
+        }));
+        probes.add(new Probe(routineRepo, "findSearchDocumentsByIdIn", none,
+            () -> routines.findSearchDocumentsByIdIn(List.of(routineId, routineId + 1, routineId + 2))));
+        probes.add(new Probe(routineRepo, "findViewsByIdIn", none,
+            () -> routines.findViewsByIdIn(List.of(routineId, routineId + 1, routineId + 2))));
+        probes.add(new Probe(routineRepo, "findLatestViewsByParentId", none,
+            () -> routines.findLatestViewsByParentId(parentId, 5)));
+
+        String studentRepo = "StudentRepository";
+        probes.add(new Probe(studentRepo, "findByParent", none,
+            () -> students.findByParent(users.getReferenceById(parentId))));
+        probes.add(new Probe(studentRepo, "findByParentId", none, () -> students.findByParentId(parentId)));
+        probes.add(new Probe(studentRepo, "existsByIdAndParentId", none,
+            () -> students.existsByIdAndParentId(studentId, parentId)));
+        probes.add(new Probe(studentRepo, "findWithParentById", none, () -> students.findWithParentById(studentId)));
+        // The admin roster reads every student by design
+        probes.add(new Probe(studentRepo, "findRosterVersion", Set.of("STUDENTS"), students::findRosterVersion));
+        probes.add(new Probe(studentRepo, "findRosterVersionByParentId", none,
+            () -> students.findRosterVersionByParentId(parentId)));
+        probes.add(new Probe(studentRepo, "findVersionById", none, () -> students.findVersionById(studentId)));
+        probes.add(new Probe(studentRepo, "findAllViews", Set.of("STUDENTS"), students::findAllViews));
+        probes.add(new Probe(studentRepo, "findViewsByParentId", none, () -> students.findViewsByParentId(parentId)));
+        probes.add(new Probe(studentRepo, "findViewsByIdIn", none,
+            () -> students.findViewsByIdIn(studentIds)));
+        probes.add(new Probe(studentRepo, "findIdsByClassGrade", Set.of("STUDENTS"),
+            () -> students.findIdsByClassGrade("Grade 1")));
+        probes.add(new Probe(studentRepo, "findFeedRowsByParentId", none,
+            () -> students.findFeedRowsByParentId(parentId, day)));
+
+        String summaryRepo = "RoutineSummaryRepository";
+        probes.add(new Probe(summaryRepo, "findByStudentIdAndPeriodTypeOrderByPeriodStartDesc", none,
+            () -> summaries.findByStudentIdAndPeriodTypeOrderByPeriodStartDesc(studentId, PeriodType.WEEK,
+                PageRequest.ofSize(53))));
+        probes.add(new Probe(summaryRepo, "findByStudentIdInAndPeriodTypeAndPeriodStartIn", none,
+            () -> summaries.findByStudentIdInAndPeriodTypeAndPeriodStartIn(studentIds, PeriodType.WEEK,
+                List.of(weekStart, weekStart.minusWeeks(1)))));
+        probes.add(new Probe(summaryRepo, "deleteByStudentId", none, () -> summaries.deleteByStudentId(studentId)));
+        probes.add(new Probe(summaryRepo, "aggregatePeriods", none,
+            () -> summaries.aggregatePeriods("WEEK", studentIds, weekStart.minusWeeks(1), weekStart.plusDays(6))));
+
+        String userRepo = "UserRepository";
+        probes.add(new Probe(userRepo, "findByUsername", none, () -> users.findByUsername(username)));
+        probes.add(new Probe(userRepo, "findByEmail", none, () -> users.findByEmail(email)));
+        probes.add(new Probe(userRepo, "existsByUsername", none, () -> users.existsByUsername(username)));
+        probes.add(new Probe(userRepo, "existsByEmail", none, () -> users.existsByEmail(email)));
+
+        String refreshRepo = "RefreshTokenRepository";
+        LocalDateTime now = LocalDateTime.now();
+        probes.add(new Probe(refreshRepo, "findByTokenHash", none, () -> refreshTokens.findByTokenHash("0".repeat(64))));
+        probes.add(new Probe(refreshRepo, "revoke", none, () -> refreshTokens.revoke(1L, now)));
+        probes.add(new Probe(refreshRepo, "revokeFamily", none, () -> refreshTokens.revokeFamily("family", now)));
+        probes.add(new Probe(refreshRepo, "deleteExpired", none, () -> refreshTokens.deleteExpired(now)));
+
+        String foodRepo = "FoodItemRepository";
+        // The catalog is listed whole; it holds distinct items, not one row per meal
+        probes.add(new Probe(foodRepo, "findAllViews", Set.of("FOOD_ITEMS"), foodItems::findAllViews));
+        // Like the cohorts, food rollups group every student by grade
+        probes.add(new Probe(foodRepo, "aggregateItems", Set.of("STUDENTS"),
+            () -> foodItems.aggregateItems(day.minusDays(6), day, null, null, 10)));
+        probes.add(new Probe(foodRepo, "aggregateCategories", Set.of("STUDENTS"),
+            () -> foodItems.aggregateCategories(day.minusDays(6), day, "Grade 1",
+                DailyRoutine.Meal.BREAKFAST.bit(), 10)));
+        return probes;
+    }
+
+    // Table names the plans read in full; every plan line goes into plans for the failure message
+    private Set<String> explain(List<StatementRecorder.Statement> statements, List<String> plans) throws SQLException {
+        Set<String> scans = new TreeSet<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (StatementRecorder.Statement statement : statements) {
+                Matcher delta = DELTA_TABLE.matcher(statement.sql());
+                String sql = delta.matches() ? delta.group(1) : statement.sql();
+                try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                    for (Map.Entry<Integer, Object> parameter : statement.parameters().entrySet()) {
+                        explain.setObject(parameter.getKey(), parameter.getValue());
+                    }
+                    try (ResultSet plan = explain.executeQuery()) {
+                        while (plan.next()) {
+                            String text = plan.getString(1);
+                            plans.add(text);
+                            Matcher scan = TABLE_SCAN.matcher(text);
+                            while (scan.find()) {
+                                scans.add(scan.group(1));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return scans;
+    }
+}
@@ -0,0 +1,286 @@
+package com.dailyroutine.repository;
+
+import com.dailyroutine.service.RoutineMetricsSnapshot;
+import com.dailyroutine.service.RoutineSearchIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * SQL statement budget test. Boots the application on a random port with a seeded school
+ * (about 500 routines per day), calls every API endpoint once over HTTP and counts the SQL
+ * statements it executed and the rows it read. An endpoint fails when it goes over its
+ * budget, which is how an association that starts loading lazily per row (N+1) shows up, and
+ * an endpoint without a scenario fails the suite.
+ *
+ * <p>Budgets are deliberately tight: when a change legitimately needs more statements, raise
+ * the number here in the same commit.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    // Its own database, so the seeded data doesn't meet another test's
+    "spring.datasource.url=jdbc:h2:mem:statement-budgets",
+    "management.server.port=-1",
+    "seed.enabled=true",
+    "seed.parents=280",
+    "seed.students-per-grade=70",
+    "seed.days=30",
+    "seed.fill-rate=0.9",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.dailyroutine=WARN",
+})
+@ContextConfiguration(initializers = StatementRecorder.Initializer.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatementBudgetTest {
+
+    private enum Caller { ANONYMOUS, ADMIN, PARENT }
+
+    private record Scenario(String endpoint, String path, Caller caller, Object body,
+                            int maxStatements, long maxRows) {
+        String method() {
+            return endpoint.substring(0, endpoint.indexOf(' '));
+        }
+    }
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper json = new ObjectMapper();
+    private final Map<Caller, String> tokens = new EnumMap<>(Caller.class);
+
+    @LocalServerPort private int port;
+    @Autowired private StatementRecorder recorder;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private RoutineSearchIndex searchIndex;
+    @Autowired private RoutineMetricsSnapshot metricsSnapshot;
+    @Autowired @Qualifier("requestMappingHandlerMapping") private RequestMappingHandlerMapping handlerMapping;
+
+    @BeforeAll
+    void signIn() throws IOException, InterruptedException {
+        // The search index and analytics snapshot load in the background; their reads must not land in a scenario
+        assertTrue(searchIndex.awaitReady(Duration.ofMinutes(5)), "Search index was not built");
+        assertTrue(metricsSnapshot.awaitReady(Duration.ofMinutes(5)), "Analytics snapshot was not loaded");
+        Long parentId = jdbc.queryForObject("SELECT parent_id FROM students WHERE id = ?", Long.class,
+            busiestStudentId());
+        tokens.put(Caller.ADMIN, login("seed-admin1"));
+        tokens.put(Caller.PARENT, login(jdbc.queryForObject("SELECT username FROM users WHERE id = ?",
+            String.class, parentId)));
+        // Loads the per-user caches so every scenario measures its steady-state cost
+        for (Caller caller : List.of(Caller.ADMIN, Caller.PARENT)) {
+            send("GET", "/api/students", caller, null);
+        }
+    }
+
+    // Scenarios run in order; the writes near the end rely on the reads before them having seen the data
+    @TestFactory
+    Stream<DynamicTest> statementBudgets() {
+        return scenarios().stream().map(scenario ->
+            dynamicTest(scenario.endpoint() + " as " + scenario.caller(), () -> run(scenario)));
+    }
+
+    @Test
+    void everyEndpointHasAScenario() {
+        Set<String> endpoints = new TreeSet<>();
+        for (RequestMappingInfo info : handlerMapping.getHandlerMethods().keySet()) {
+            for (String pattern : info.getPatternValues()) {
+                if (pattern.startsWith("/api/")) {
+                    info.getMethodsCondition().getMethods().forEach(method -> endpoints.add(method + " " + pattern));
+                }
+            }
+        }
+        scenarios().forEach(scenario -> endpoints.remove(scenario.endpoint()));
+        assertEquals(Set.of(), endpoints, "Endpoints without a scenario in StatementBudgetTest");
+    }
+
+    private List<Scenario> scenarios() {
+        LocalDate day = jdbc.queryForObject(
+            "SELECT routine_date FROM daily_routines GROUP BY routine_date ORDER BY COUNT(*) DESC LIMIT 1",
+            LocalDate.class);
+        Long studentId = busiestStudentId();
+        Long parentId = jdbc.queryForObject("SELECT parent_id FROM students WHERE id = ?", Long.class, studentId);
+        Long routineId = jdbc.queryForObject(
+            "SELECT MIN(id) FROM daily_routines WHERE student_id = ? AND routine_date = ?", Long.class, studentId, day);
+        Long otherRoutineId = jdbc.queryForObject(
+            "SELECT MAX(id) FROM daily_routines WHERE routine_date = ?", Long.class, day);
+        // A second child of some parent; deleting it takes its whole history with it
+        Long doomedStudentId = jdbc.queryForObject(
+            "SELECT MAX(id) FROM students WHERE id <> ? AND parent_id <> ?", Long.class, studentId, parentId);
+        String classGrade = jdbc.queryForObject("SELECT class_grade FROM students WHERE id = ?", String.class, studentId);
+        Long foodItemId = jdbc.queryForObject("SELECT MIN(id) FROM food_items", Long.class);
+
+        Map<String, Object> routine = routine(studentId, LocalDate.now());
+        List<Map<String, Object>> batch = List.of(
+            routine(studentId, LocalDate.now().minusDays(40)),
+            routine(studentId, LocalDate.now().minusDays(41)),
+            routine(studentId, day));
+        String from = day.minusDays(6).toString();
+
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new Scenario("POST /api/auth/register", "/api/auth/register", Caller.ANONYMOUS,
+            Map.of("username", "budget-user", "password", "password", "email", "budget@example.com", "role", "PARENT"),
+            3, 1));
+        scenarios.add(new Scenario("POST /api/auth/login", "/api/auth/login", Caller.ANONYMOUS,
+            Map.of("username", "budget-user", "password", "password"), 2, 1));
+        scenarios.add(new Scenario("POST /api/auth/refresh", "/api/auth/refresh", Caller.ANONYMOUS,
+            Map.of("refreshToken", "${refreshToken}"), 3, 1));
+        // Listed from configuration
+        scenarios.add(new Scenario("GET /api/auth/schools", "/api/auth/schools", Caller.ANONYMOUS, null, 0, 0));
+        scenarios.add(new Scenario("POST /api/auth/logout", "/api/auth/logout", Caller.ANONYMOUS,
+            Map.of("refreshToken", "${refreshToken}"), 2, 1));
+
+        scenarios.add(new Scenario("GET /api/students", "/api/students", Caller.ADMIN, null, 2, 600));
+        scenarios.add(new Scenario("GET /api/students", "/api/students", Caller.PARENT, null, 2, 10));
+        scenarios.add(new Scenario("GET /api/students/{id}", "/api/students/" + studentId, Caller.PARENT, null, 2, 2));
+        // One aggregate over the children, one ranked read of their newest routines
+        scenarios.add(new Scenario("GET /api/students/home", "/api/students/home", Caller.PARENT, null, 2, 20));
+        scenarios.add(new Scenario("GET /api/students/{id}/summary", "/api/students/" + studentId + "/summary",
+            Caller.PARENT, null, 4, 80));
+        scenarios.add(new Scenario("POST /api/students", "/api/students", Caller.ADMIN,
+            Map.of("name", "Budget Child", "classGrade", classGrade, "parentId", parentId), 2, 2));
+        scenarios.add(new Scenario("PUT /api/students/{id}", "/api/students/" + studentId, Caller.ADMIN,
+            Map.of("name", "Renamed Child", "classGrade", classGrade), 2, 1));
+
+        scenarios.add(new Scenario("GET /api/routines/student/{studentId}",
+            "/api/routines/student/" + studentId + "?limit=30", Caller.PARENT, null, 2, 31));
+        // Version stamp, then one page plus the look-ahead row that decides whether there is a next cursor
+        scenarios.add(new Scenario("GET /api/routines/date/{date}", "/api/routines/date/" + day + "?limit=200",
+            Caller.ADMIN, null, 2, 202));
+        scenarios.add(new Scenario("GET /api/routines/date/{date}",
+            "/api/routines/date/" + day + "?limit=100&classGrade=" + classGrade.replace(" ", "%20"),
+            Caller.ADMIN, null, 2, 101));
+        // Writes also refresh the student's week and month summaries: aggregate, read, upsert for each.
+        // New routines insert their food item links in one batch; changed meals delete the old ones first.
+        // A single routine is written with one MERGE; the batch may also fetch the next block of routine ids
+        scenarios.add(new Scenario("POST /api/routines", "/api/routines", Caller.PARENT, routine, 9, 20));
+        scenarios.add(new Scenario("POST /api/routines/batch", "/api/routines/batch", Caller.PARENT, batch, 14, 30));
+        scenarios.add(new Scenario("PUT /api/routines/{id}/feedback", "/api/routines/" + routineId + "/feedback",
+            Caller.ADMIN, Map.of("feedback", "Well done"), 8, 8));
+        scenarios.add(new Scenario("DELETE /api/routines/{id}", "/api/routines/" + otherRoutineId, Caller.ADMIN,
+            null, 9, 20));
+        scenarios.add(new Scenario("DELETE /api/students/{id}", "/api/students/" + doomedStudentId, Caller.ADMIN,
+            null, 5, 40));
+
+        // Answered from the in-memory snapshot
+        scenarios.add(new Scenario("GET /api/analytics/cohorts",
+            "/api/analytics/cohorts?from=" + from + "&to=" + day + "&bucket=DAY", Caller.ADMIN, null, 0, 0));
+        // The index picks the page, one read loads it; a grade filter first resolves the grade's students
+        scenarios.add(new Scenario("GET /api/routines/search", "/api/routines/search?q=poha&limit=50",
+            Caller.ADMIN, null, 1, 51));
+        scenarios.add(new Scenario("GET /api/routines/search",
+            "/api/routines/search?q=rice%20-dal&from=" + from + "&to=" + day + "&classGrade="
+                + classGrade.replace(" ", "%20"), Caller.ADMIN, null, 2, 130));
+        // One cursor over the range; the rows are the export itself, so the budget is a grade's two days
+        scenarios.add(new Scenario("GET /api/routines/export",
+            "/api/routines/export?from=" + day.minusDays(1) + "&to=" + day + "&classGrade="
+                + classGrade.replace(" ", "%20"), Caller.ADMIN, null, 1, 140));
+        // One rollup; rows are the top 10 per class grade
+        scenarios.add(new Scenario("GET /api/analytics/foods",
+            "/api/analytics/foods?from=" + from + "&to=" + day, Caller.ADMIN, null, 1, 80));
+        scenarios.add(new Scenario("GET /api/analytics/foods",
+            "/api/analytics/foods?from=" + from + "&to=" + day + "&meal=BREAKFAST&groupBy=CATEGORY",
+            Caller.ADMIN, null, 1, 80));
+        // The catalog holds each distinct item once, a few dozen for the seeded menus
+        scenarios.add(new Scenario("GET /api/foods", "/api/foods", Caller.PARENT, null, 1, 50));
+        scenarios.add(new Scenario("PUT /api/foods/{id}", "/api/foods/" + foodItemId, Caller.ADMIN,
+            Map.of("category", "GRAIN"), 2, 1));
+        scenarios.add(new Scenario("GET /api/events/stream", "/api/events/stream", Caller.PARENT, null, 0, 0));
+        return scenarios;
+    }
+
+    // The PARENT caller is this student's parent
+    private Long busiestStudentId() {
+        return jdbc.queryForObject(
+            "SELECT student_id FROM daily_routines GROUP BY student_id ORDER BY COUNT(*) DESC LIMIT 1", Long.class);
+    }
+
+    private void run(Scenario scenario) throws IOException, InterruptedException {
+        Object body = scenario.body();
+        if (body instanceof Map<?, ?> map && "${refreshToken}".equals(map.get("refreshToken"))) {
+            // Each refresh-token scenario works on a fresh login so earlier scenarios can't revoke it
+            body = Map.of("refreshToken", loginResponse("budget-user").path("refreshToken").asText());
+        }
+        recorder.start();
+        int status = send(scenario.method(), scenario.path(), scenario.caller(), body);
+        List<String> sql = recorder.stop().stream().map(StatementRecorder.Statement::sql).toList();
+        long rows = recorder.rows();
+        assertTrue(status / 100 == 2 && sql.size() <= scenario.maxStatements() && rows <= scenario.maxRows(),
+            () -> String.format("%s as %s: status %d, %d of %d statements, %d of %d rows:%n    %s",
+                scenario.endpoint(), scenario.caller(), status, sql.size(), scenario.maxStatements(), rows,
+                scenario.maxRows(), String.join("\n    ", sql)));
+    }
+
+    private int send(String method, String path, Caller caller, Object body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .method(method, body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body)))
+            .header("Content-Type", "application/json");
+        if (caller != Caller.ANONYMOUS) {
+            request.header("Authorization", "Bearer " + tokens.get(caller));
+        }
+        // Read the whole body, except for the event stream which never ends; its headers are enough
+        HttpResponse<InputStream> response = http.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream stream = response.body()) {
+            if (!path.startsWith("/api/events/")) {
+                stream.readAllBytes();
+            }
+        }
+        return response.statusCode();
+    }
+
+    private String login(String username) throws IOException, InterruptedException {
+        return loginResponse(username).path("token").asText();
+    }
+
+    private JsonNode loginResponse(String username) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(
+                json.writeValueAsBytes(Map.of("username", username, "password", "password"))))
+            .build();
+        return json.readTree(http.send(request, HttpResponse.BodyHandlers.ofByteArray()).body());
+    }
+
+    private static Map<String, Object> routine(Long studentId, LocalDate date) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("studentId", studentId);
+        body.put("routineDate", date.toString());
+        body.put("wakeUpTime", "06:45");
+        body.put("breakfastItems", "Poha, milk");
+        body.put("screenTimeMinutes", 45);
+        body.put("studyTimeMinutes", 40);
+        body.put("sleepTime", "21:15");
+        body.put("behaviorAtHome", "GOOD");
+        return body;
+    }
+}
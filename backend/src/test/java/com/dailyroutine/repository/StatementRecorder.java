@@ -0,0 +1,126 @@
+package com.dailyroutine.repository;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps a {@link DataSource} so that, while recording, every prepared statement executed
+ * through it is captured together with its bound parameters, and rows read from its result
+ * sets are counted. Used by {@link QueryPlanTest} to replay exactly what the repositories ran
+ * under {@code EXPLAIN}, and by {@link StatementBudgetTest} to hold endpoints to a budget.
+ */
+final class StatementRecorder {
+
+    record Statement(String sql, Map<Integer, Object> parameters) {}
+
+    private final List<Statement> statements = new ArrayList<>();
+    private final AtomicLong rows = new AtomicLong();
+    private volatile boolean recording;
+
+    /**
+     * Registers a fresh recorder as the {@code statementRecorder} bean, with a post-processor
+     * that wraps the application's {@link DataSource} in it.
+     */
+    static final class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+        @Override
+        public void initialize(ConfigurableApplicationContext context) {
+            StatementRecorder recorder = new StatementRecorder();
+            context.getBeanFactory().registerSingleton("statementRecorder", recorder);
+            context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? recorder.wrap(dataSource) : bean;
+                }
+            });
+        }
+    }
+
+    private DataSource wrap(DataSource target) {
+        return proxy(DataSource.class, target, (method, args, result) ->
+            result instanceof Connection connection ? wrapConnection(connection) : result);
+    }
+
+    synchronized void start() {
+        statements.clear();
+        rows.set(0);
+        recording = true;
+    }
+
+    /** Rows read since the last {@link #start()}. */
+    long rows() {
+        return rows.get();
+    }
+
+    synchronized List<Statement> stop() {
+        recording = false;
+        return List.copyOf(statements);
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) ->
+            method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement
+                ? wrapStatement(statement, (String) args[0])
+                : result);
+    }
+
+    private PreparedStatement wrapStatement(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                } else if (name.startsWith("execute") && recording) {
+                    synchronized (this) {
+                        statements.add(new Statement(sql, new TreeMap<>(parameters)));
+                    }
+                }
+                Object result = invoke(statement, method, args);
+                return result instanceof ResultSet resultSet ? wrapResultSet(resultSet) : result;
+            });
+    }
+
+    private ResultSet wrapResultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (method, args, result) -> {
+            if (recording && method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows.incrementAndGet();
+            }
+            return result;
+        });
+    }
+
+    private interface ResultMapper {
+        Object map(Method method, Object[] args, Object result) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, ResultMapper mapper) {
+        return (T) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> mapper.map(method, args, invoke(target, method, args)));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
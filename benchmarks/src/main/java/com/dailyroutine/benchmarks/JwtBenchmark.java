@@ -0,0 +1,62 @@
+package com.dailyroutine.benchmarks;
+
+import com.dailyroutine.config.JwtPrincipal;
+import com.dailyroutine.config.JwtUtil;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification as done by {@code AuthService.login} and
+ * {@code JwtRequestFilter}. {@code validateToken} and {@code verify} measure the steady state
+ * where clients reuse their token and the verified-token cache answers; {@code parseClaims}
+ * is the full signature check a first-seen token pays, done with the same key and parser settings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "mySecretKey1234567890123456789012345678901234567890123456789012345678901234567890";
+
+    private JwtUtil jwtUtil;
+    private JwtParser parser;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 86_400_000L, 10_000);
+        parser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build();
+        user = User.withUsername("admin").password("unused").roles("ADMIN").build();
+        token = jwtUtil.generateToken("admin", "ADMIN", "default");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("admin", "ADMIN", "default");
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public JwtPrincipal verify() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public String parseClaims() {
+        return parser.parseSignedClaims(token).getPayload().getSubject();
+    }
+}
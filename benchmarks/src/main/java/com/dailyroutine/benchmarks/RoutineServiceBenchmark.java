@@ -0,0 +1,167 @@
+package com.dailyroutine.benchmarks;
+
+import com.dailyroutine.DailyRoutineApplication;
+import com.dailyroutine.config.AuthenticatedUser;
+import com.dailyroutine.dto.CursorPage;
+import com.dailyroutine.dto.RoutineRequest;
+import com.dailyroutine.dto.RoutineView;
+import com.dailyroutine.entity.DailyRoutine;
+import com.dailyroutine.entity.Student;
+import com.dailyroutine.entity.User;
+import com.dailyroutine.repository.DailyRoutineRepository;
+import com.dailyroutine.repository.StudentRepository;
+import com.dailyroutine.repository.UserRepository;
+import com.dailyroutine.service.RoutineService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RoutineService} against the full application context on an in-memory H2 database
+ * seeded with {@code students} students, each with {@code days} days of routines.
+ *
+ * <p>{@code saveRoutine} upserts a random student's entry for a random day in the seeded range,
+ * so it measures the update path including the summary refresh; {@code getRoutinesByDate}
+ * reads the first page of a random day, with and without the class grade filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RoutineServiceBenchmark {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final int STUDENTS_PER_PARENT = 2;
+    private static final int INSERT_CHUNK = 1000;
+
+    @Param({"2000"})
+    public int students;
+
+    @Param({"60"})
+    public int days;
+
+    private ConfigurableApplicationContext context;
+    private RoutineService routineService;
+    private AuthenticatedUser admin;
+    private long firstStudentId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(DailyRoutineApplication.class).run(
+            "--server.port=0",
+            "--management.server.port=-1",
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.jpa.show-sql=false",
+            "--spring.h2.console.enabled=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.dailyroutine=WARN");
+        routineService = context.getBean(RoutineService.class);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    private void seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        StudentRepository studentRepository = context.getBean(StudentRepository.class);
+        DailyRoutineRepository routineRepository = context.getBean(DailyRoutineRepository.class);
+        TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+
+        User adminUser = userRepository.save(new User("bench-admin", "$2a$10$unused", "admin@bench.test", User.Role.ADMIN));
+        admin = AuthenticatedUser.from(adminUser);
+
+        List<Student> seeded = new ArrayList<>(students);
+        for (int i = 0; i < students; i += STUDENTS_PER_PARENT) {
+            User parent = userRepository.save(
+                new User("bench-parent-" + i, "$2a$10$unused", "parent" + i + "@bench.test", User.Role.PARENT));
+            for (int j = i; j < Math.min(i + STUDENTS_PER_PARENT, students); j++) {
+                seeded.add(new Student("Student " + j, SampleRoutines.GRADES[j % SampleRoutines.GRADES.length], parent));
+            }
+        }
+        seeded = studentRepository.saveAll(seeded);
+        firstStudentId = seeded.get(0).getId();
+
+        SplittableRandom random = new SplittableRandom(7);
+        List<DailyRoutine> chunk = new ArrayList<>(INSERT_CHUNK);
+        for (int day = 0; day < days; day++) {
+            for (Student student : seeded) {
+                RoutineRequest request = SampleRoutines.request(student.getId(), FIRST_DAY.plusDays(day), random);
+                DailyRoutine routine = new DailyRoutine();
+                routine.setStudent(student);
+                routine.setRoutineDate(request.getRoutineDate());
+                routine.setWakeUpTime(request.getWakeUpTime());
+                routine.setSleepTime(request.getSleepTime());
+                routine.setScreenTimeMinutes(request.getScreenTimeMinutes());
+                routine.setStudyTimeMinutes(request.getStudyTimeMinutes());
+                routine.setBreakfastItems(request.getBreakfastItems());
+                routine.setLunchItems(request.getLunchItems());
+                routine.setDinnerItems(request.getDinnerItems());
+                routine.setBehaviorAtHome(request.getBehaviorAtHome());
+                routine.setCreatedBy(student.getParent());
+                chunk.add(routine);
+                if (chunk.size() == INSERT_CHUNK) {
+                    List<DailyRoutine> batch = List.copyOf(chunk);
+                    tx.executeWithoutResult(status -> routineRepository.saveAll(batch));
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            tx.executeWithoutResult(status -> routineRepository.saveAll(chunk));
+        }
+    }
+
+    /**
+     * Per-thread caller identity and random stream; the security context is thread-bound.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void authenticate(RoutineServiceBenchmark benchmark) {
+            random = new SplittableRandom(Thread.currentThread().getId());
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                benchmark.admin, null, benchmark.admin.getAuthorities()));
+        }
+
+        @TearDown(Level.Trial)
+        public void clear() {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public RoutineView saveRoutine(Caller caller) {
+        long studentId = firstStudentId + caller.random.nextInt(students);
+        LocalDate date = FIRST_DAY.plusDays(caller.random.nextInt(days));
+        return routineService.saveRoutine(SampleRoutines.request(studentId, date, caller.random));
+    }
+
+    @Benchmark
+    public CursorPage<RoutineView> getRoutinesByDate(Caller caller) {
+        LocalDate date = FIRST_DAY.plusDays(caller.random.nextInt(days));
+        return routineService.getRoutinesByDate(date, null, null, null, null);
+    }
+
+    @Benchmark
+    public CursorPage<RoutineView> getRoutinesByDateAndGrade(Caller caller) {
+        LocalDate date = FIRST_DAY.plusDays(caller.random.nextInt(days));
+        String grade = SampleRoutines.GRADES[caller.random.nextInt(SampleRoutines.GRADES.length)];
+        return routineService.getRoutinesByDate(date, grade, null, null, null);
+    }
+}
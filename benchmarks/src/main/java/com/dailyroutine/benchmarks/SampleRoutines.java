@@ -0,0 +1,101 @@
+package com.dailyroutine.benchmarks;
+
+import com.dailyroutine.dto.RoutineRequest;
+import com.dailyroutine.entity.DailyRoutine;
+import com.dailyroutine.entity.Student;
+import com.dailyroutine.entity.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic routine data with the field fill rate of a typical day's entry.
+ */
+final class SampleRoutines {
+
+    static final String[] GRADES = {"Nursery", "Jr KG", "Sr KG", "1st", "2nd", "3rd"};
+
+    private static final String[] BREAKFAST = {"Poha, milk", "Idli sambar", "Upma", "Bread, egg, juice", "Paratha, curd"};
+    private static final String[] LUNCH = {"Dal rice, sabzi", "Chapati, paneer", "Khichdi", "Rajma rice", "Pulao, raita"};
+    private static final String[] DINNER = {"Chapati, dal", "Dosa", "Rice, curry", "Soup, bread", "Pasta"};
+    private static final String[] ACTIVITY = {"Drawing", "Reading", "Outdoor play", "Puzzles", "Music practice"};
+    private static final DailyRoutine.Behavior[] BEHAVIOR = DailyRoutine.Behavior.values();
+
+    private SampleRoutines() {}
+
+    static RoutineRequest request(long studentId, LocalDate date, SplittableRandom random) {
+        RoutineRequest request = new RoutineRequest();
+        request.setStudentId(studentId);
+        request.setRoutineDate(date);
+        request.setWakeUpTime(LocalTime.of(6, 0).plusMinutes(random.nextInt(90)));
+        request.setSchoolTime(LocalTime.of(8, 30));
+        request.setBreakfastTime(LocalTime.of(7, 15).plusMinutes(random.nextInt(45)));
+        request.setBreakfastItems(pick(BREAKFAST, random));
+        request.setLunchTime(LocalTime.of(12, 30).plusMinutes(random.nextInt(60)));
+        request.setLunchItems(pick(LUNCH, random));
+        request.setScreenTimeMinutes(random.nextInt(180));
+        request.setNapTime(random.nextInt(3) == 0 ? LocalTime.of(14, 0) : null);
+        request.setStudyTimeMinutes(15 + random.nextInt(90));
+        request.setBeforeClassActivity(pick(ACTIVITY, random));
+        request.setDinnerTime(LocalTime.of(19, 30).plusMinutes(random.nextInt(60)));
+        request.setDinnerItems(pick(DINNER, random));
+        request.setSleepTime(LocalTime.of(20, 30).plusMinutes(random.nextInt(120)));
+        request.setBehaviorAtHome(BEHAVIOR[random.nextInt(BEHAVIOR.length)]);
+        request.setNotes(random.nextInt(4) == 0 ? "Was a little tired after school today." : null);
+        return request;
+    }
+
+    /**
+     * Detached entities wired to a student and parent, as a controller would see them after a
+     * fetch-joined query; half of them carry admin feedback.
+     */
+    static List<DailyRoutine> entities(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        User admin = new User("admin", "$2a$10$hash", "admin@school.test", User.Role.ADMIN);
+        admin.setId(1L);
+        List<DailyRoutine> routines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User parent = new User("parent" + i, "$2a$10$hash", "parent" + i + "@mail.test", User.Role.PARENT);
+            parent.setId(100L + i);
+            Student student = new Student("Student " + i, GRADES[i % GRADES.length], parent);
+            student.setId(1000L + i);
+
+            RoutineRequest request = request(student.getId(), LocalDate.of(2024, 6, 1), random);
+            DailyRoutine routine = new DailyRoutine();
+            routine.setId(10_000L + i);
+            routine.setStudent(student);
+            routine.setRoutineDate(request.getRoutineDate());
+            routine.setWakeUpTime(request.getWakeUpTime());
+            routine.setSchoolTime(request.getSchoolTime());
+            routine.setBreakfastTime(request.getBreakfastTime());
+            routine.setBreakfastItems(request.getBreakfastItems());
+            routine.setLunchTime(request.getLunchTime());
+            routine.setLunchItems(request.getLunchItems());
+            routine.setScreenTimeMinutes(request.getScreenTimeMinutes());
+            routine.setNapTime(request.getNapTime());
+            routine.setStudyTimeMinutes(request.getStudyTimeMinutes());
+            routine.setBeforeClassActivity(request.getBeforeClassActivity());
+            routine.setDinnerTime(request.getDinnerTime());
+            routine.setDinnerItems(request.getDinnerItems());
+            routine.setSleepTime(request.getSleepTime());
+            routine.setBehaviorAtHome(request.getBehaviorAtHome());
+            routine.setNotes(request.getNotes());
+            routine.setCreatedBy(parent);
+            if (i % 2 == 0) {
+                routine.setAdminFeedback("Good consistency this week, keep the bedtime steady.");
+                routine.setFeedbackDate(LocalDateTime.of(2024, 6, 2, 9, 0));
+                routine.setFeedbackBy(admin);
+            }
+            routines.add(routine);
+        }
+        return routines;
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,54 @@
+package com.dailyroutine.benchmarks;
+
+import com.dailyroutine.dto.CursorPage;
+import com.dailyroutine.dto.RoutineView;
+import com.dailyroutine.entity.DailyRoutine;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of routine listings. {@code entities} serializes {@link DailyRoutine} graphs the
+ * way the API did before it switched to read models; {@code views} serializes the
+ * {@link CursorPage} of {@link RoutineView} the routine endpoints return now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "50", "200", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<DailyRoutine> entities;
+    private CursorPage<RoutineView> page;
+
+    @Setup
+    public void setUp() {
+        // Same settings Spring Boot applies to the mapper behind the REST controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        entities = SampleRoutines.entities(size, 42);
+        page = new CursorPage<>(entities.stream().map(RoutineView::from).toList(), "2024-06-01_" + size);
+    }
+
+    @Benchmark
+    public byte[] entities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] views() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,90 @@
+package com.dailyroutine.benchmarks;
+
+import com.dailyroutine.config.WireFormatConfig;
+import com.dailyroutine.dto.CursorPage;
+import com.dailyroutine.dto.RoutineView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Server-side cost of writing a page of routines in each format the API negotiates. Run the
+ * class itself ({@code java -cp target/benchmarks.jar com.dailyroutine.benchmarks.WireFormatBenchmark})
+ * to print the payload sizes instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    public enum Format { JSON, CBOR, SMILE }
+
+    @Param({"50", "200"})
+    public int size;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public Format format;
+
+    private ObjectMapper objectMapper;
+    private CursorPage<RoutineView> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = mapper(format);
+        page = page(size);
+    }
+
+    @Benchmark
+    public byte[] views() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    // The same mappers the message converters use, built from Boot's JSON defaults
+    static ObjectMapper mapper(Format format) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return switch (format) {
+            case JSON -> builder.build();
+            case CBOR -> WireFormatConfig.compact(builder, new CBORFactory()).build();
+            case SMILE -> WireFormatConfig.compact(builder, new SmileFactory()).build();
+        };
+    }
+
+    static CursorPage<RoutineView> page(int size) {
+        List<RoutineView> views = SampleRoutines.entities(size, 42).stream().map(RoutineView::from).toList();
+        return new CursorPage<>(views, "2024-06-01_" + size);
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%-8s %6s %10s %10s%n", "format", "size", "bytes", "gzipped");
+        for (int size : new int[] {10, 50, 200, 1000}) {
+            CursorPage<RoutineView> page = page(size);
+            for (Format format : Format.values()) {
+                byte[] body = mapper(format).writeValueAsBytes(page);
+                System.out.printf("%-8s %6d %10d %10d%n", format, size, body.length, gzip(body).length);
+            }
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
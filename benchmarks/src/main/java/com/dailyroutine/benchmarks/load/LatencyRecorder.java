@@ -0,0 +1,87 @@
+package com.dailyroutine.benchmarks.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects raw latencies per action; a load test run produces at most a few million samples,
+ * so exact percentiles are cheaper to get right than a histogram.
+ */
+final class LatencyRecorder {
+
+    private final Map<String, Samples> actions = new ConcurrentHashMap<>();
+
+    void record(String action, long nanos, boolean ok) {
+        Samples samples = actions.computeIfAbsent(action, key -> new Samples());
+        synchronized (samples) {
+            if (ok) {
+                samples.add(nanos);
+            } else {
+                samples.errors++;
+            }
+        }
+    }
+
+    void error(String action) {
+        Samples samples = actions.computeIfAbsent(action, key -> new Samples());
+        synchronized (samples) {
+            samples.errors++;
+        }
+    }
+
+    Map<String, Object> report(double elapsedSeconds) {
+        Map<String, Object> rows = new TreeMap<>();
+        Samples total = new Samples();
+        actions.forEach((action, samples) -> {
+            synchronized (samples) {
+                rows.put(action, summarize(samples, elapsedSeconds));
+                for (int i = 0; i < samples.size; i++) {
+                    total.add(samples.values[i]);
+                }
+                total.errors += samples.errors;
+            }
+        });
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("elapsedSeconds", elapsedSeconds);
+        report.put("actions", rows);
+        report.put("total", summarize(total, elapsedSeconds));
+        return report;
+    }
+
+    private static Map<String, Object> summarize(Samples samples, double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(samples.values, samples.size);
+        Arrays.sort(sorted);
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("count", (long) sorted.length);
+        row.put("errors", samples.errors);
+        row.put("throughput", sorted.length / elapsedSeconds);
+        row.put("p50Ms", percentile(sorted, 0.50));
+        row.put("p99Ms", percentile(sorted, 0.99));
+        row.put("maxMs", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6);
+        return row;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class Samples {
+        long[] values = new long[1024];
+        int size;
+        long errors;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.dailyroutine.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load test against a running backend seeded by {@code SyntheticDataGenerator}.
+ *
+ * <p>Each virtual user logs in as one seeded account and then repeats a weighted mix of that
+ * role's actions with a think time between them. Parents open their dashboard (children,
+ * recent history, trend summary) and submit today's routine; admins page through yesterday's
+ * routines, open the roster and leave feedback. A share of iterations renews the access token
+ * through the refresh endpoint, and a smaller one logs in again with the password. Prints
+ * throughput and p50/p99 latency per action, and writes them as JSON with {@code --json}.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.dailyroutine.benchmarks.load.LoadTest \
+ *     --users 200 --admin-share 0.05 --duration 120 --warmup 20 --json results/load.json
+ * </pre>
+ */
+public final class LoadTest {
+
+    private final Options options;
+    private final HttpClient http;
+    private final ObjectMapper json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    private LoadTest(Options options) {
+        this.options = options;
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest(Options.parse(args)).run();
+    }
+
+    private void run() throws Exception {
+        int adminUsers = (int) Math.round(options.users * options.adminShare);
+        System.out.printf("Running %d virtual users (%d admins) against %s: %ds warmup, %ds measured%n",
+            options.users, adminUsers, options.baseUrl, options.warmupSeconds, options.durationSeconds);
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.users; i++) {
+                boolean admin = i < adminUsers;
+                // Spread users over the seeded accounts; several may share one account
+                String username = admin
+                    ? "seed-admin" + (1 + i % options.admins)
+                    : "seed-parent" + (1 + (i - adminUsers) % options.parents);
+                SplittableRandom random = new SplittableRandom(options.seed + i);
+                users.submit(() -> admin ? adminLoop(username, random) : parentLoop(username, random));
+            }
+            TimeUnit.SECONDS.sleep(options.warmupSeconds);
+            recording = true;
+            long started = System.nanoTime();
+            TimeUnit.SECONDS.sleep(options.durationSeconds);
+            recording = false;
+            double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+            running = false;
+
+            Map<String, Object> report = recorder.report(elapsedSeconds);
+            print(report);
+            if (options.jsonPath != null) {
+                Path path = Path.of(options.jsonPath);
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                json.writeValue(path.toFile(), report);
+                System.out.println("Wrote " + path);
+            }
+        }
+    }
+
+    private Void parentLoop(String username, SplittableRandom random) throws InterruptedException {
+        Session session = login(username);
+        List<Long> children = new ArrayList<>();
+        while (running) {
+            try {
+                double action = random.nextDouble();
+                String token = session.token();
+                if (token == null || action < 0.01) {
+                    session = login(username);
+                } else if (action < 0.05) {
+                    session = refresh(username, session);
+                } else if (children.isEmpty() || action < 0.65) {
+                    JsonNode students = get("parent.students", "/api/students", token);
+                    children.clear();
+                    if (students != null) {
+                        students.forEach(student -> children.add(student.get("id").asLong()));
+                    }
+                    if (!children.isEmpty()) {
+                        long child = children.get(random.nextInt(children.size()));
+                        get("parent.history", "/api/routines/student/" + child + "?limit=30", token);
+                        get("parent.summary", "/api/students/" + child + "/summary", token);
+                    }
+                } else {
+                    long child = children.get(random.nextInt(children.size()));
+                    send("parent.submit", "POST", "/api/routines", token, routineBody(child, random));
+                }
+            } catch (IOException e) {
+                recorder.error("transport");
+            }
+            think(random);
+        }
+        return null;
+    }
+
+    private Void adminLoop(String username, SplittableRandom random) throws InterruptedException {
+        Session session = login(username);
+        List<Long> visible = new ArrayList<>();
+        String yesterday = LocalDate.now().minusDays(1).toString();
+        while (running) {
+            try {
+                double action = random.nextDouble();
+                String token = session.token();
+                if (token == null || action < 0.01) {
+                    session = login(username);
+                } else if (action < 0.05) {
+                    session = refresh(username, session);
+                } else if (action < 0.10) {
+                    get("admin.roster", "/api/students", token);
+                } else if (visible.isEmpty() || action < 0.65) {
+                    JsonNode page = get("admin.day", "/api/routines/date/" + yesterday + "?limit=50", token);
+                    visible.clear();
+                    if (page != null) {
+                        page.path("items").forEach(routine -> visible.add(routine.get("id").asLong()));
+                    }
+                } else {
+                    long routineId = visible.get(random.nextInt(visible.size()));
+                    send("admin.feedback", "PUT", "/api/routines/" + routineId + "/feedback", token,
+                        Map.of("feedback", "Reviewed by " + username + ", keep it up."));
+                }
+            } catch (IOException e) {
+                recorder.error("transport");
+            }
+            think(random);
+        }
+        return null;
+    }
+
+    private record Session(String token, String refreshToken) {
+        static Session of(JsonNode response) {
+            return response == null
+                ? new Session(null, null)
+                : new Session(response.path("token").asText(null), response.path("refreshToken").asText(null));
+        }
+    }
+
+    private Session login(String username) throws InterruptedException {
+        try {
+            return Session.of(send("login", "POST", "/api/auth/login", null,
+                Map.of("username", username, "password", options.password)));
+        } catch (IOException e) {
+            recorder.error("transport");
+            return Session.of(null);
+        }
+    }
+
+    // Falls back to a password login when the refresh token is missing or rejected
+    private Session refresh(String username, Session session) throws IOException, InterruptedException {
+        if (session.refreshToken() == null) {
+            return login(username);
+        }
+        Session renewed = Session.of(send("refresh", "POST", "/api/auth/refresh", null,
+            Map.of("refreshToken", session.refreshToken())));
+        return renewed.token() != null ? renewed : login(username);
+    }
+
+    private JsonNode get(String action, String path, String token) throws IOException, InterruptedException {
+        return execute(action, request(path, token).GET().build());
+    }
+
+    private JsonNode send(String action, String method, String path, String token, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest request = request(path, token)
+            .header("Content-Type", "application/json")
+            .method(method, HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body)))
+            .build();
+        return execute(action, request);
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(options.baseUrl + path))
+            .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private JsonNode execute(String action, HttpRequest request) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        long elapsed = System.nanoTime() - started;
+        boolean ok = response.statusCode() / 100 == 2;
+        if (recording) {
+            recorder.record(action, elapsed, ok);
+        }
+        return ok ? json.readTree(response.body()) : null;
+    }
+
+    private Map<String, Object> routineBody(long studentId, SplittableRandom random) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("studentId", studentId);
+        body.put("routineDate", LocalDate.now().toString());
+        body.put("wakeUpTime", String.format("06:%02d", 30 + random.nextInt(30)));
+        body.put("breakfastItems", "Poha, milk");
+        body.put("lunchItems", "Dal rice, sabzi");
+        body.put("screenTimeMinutes", random.nextInt(150));
+        body.put("studyTimeMinutes", 20 + random.nextInt(60));
+        body.put("dinnerItems", "Chapati, dal");
+        body.put("sleepTime", String.format("21:%02d", random.nextInt(60)));
+        body.put("behaviorAtHome", random.nextInt(4) == 0 ? "AVERAGE" : "GOOD");
+        return body;
+    }
+
+    private void think(SplittableRandom random) throws InterruptedException {
+        if (options.thinkMillis > 0) {
+            // Uniform around the mean so users don't march in lockstep
+            Thread.sleep(options.thinkMillis / 2 + random.nextLong(options.thinkMillis + 1));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> report) {
+        System.out.printf("%n%-16s %9s %7s %9s %9s %9s %9s%n", "action", "count", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) report.get("actions")).entrySet()) {
+            Map<String, Object> row = (Map<String, Object>) entry.getValue();
+            System.out.printf("%-16s %9d %7d %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(), row.get("count"),
+                row.get("errors"), row.get("throughput"), row.get("p50Ms"), row.get("p99Ms"), row.get("maxMs"));
+        }
+        Map<String, Object> total = (Map<String, Object>) report.get("total");
+        System.out.printf("%-16s %9d %7d %9.1f %9.1f %9.1f %9.1f%n", "TOTAL", total.get("count"),
+            total.get("errors"), total.get("throughput"), total.get("p50Ms"), total.get("p99Ms"), total.get("maxMs"));
+    }
+
+    private record Options(String baseUrl, int users, double adminShare, int parents, int admins, String password,
+                           int durationSeconds, int warmupSeconds, long thinkMillis, long seed, String jsonPath) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int i = 0; i < args.length; i++) {
+                if (!args[i].startsWith("--") || i + 1 == args.length) {
+                    throw new IllegalArgumentException("Expected --name value pairs, got: " + args[i]);
+                }
+                values.put(args[i].substring(2), args[++i]);
+            }
+            return new Options(
+                values.getOrDefault("base-url", "http://localhost:8080"),
+                Integer.parseInt(values.getOrDefault("users", "100")),
+                Double.parseDouble(values.getOrDefault("admin-share", "0.05")),
+                Integer.parseInt(values.getOrDefault("parents", "1000")),
+                Integer.parseInt(values.getOrDefault("admins", "5")),
+                values.getOrDefault("password", "password"),
+                Integer.parseInt(values.getOrDefault("duration", "60")),
+                Integer.parseInt(values.getOrDefault("warmup", "10")),
+                Long.parseLong(values.getOrDefault("think-ms", "500")),
+                Long.parseLong(values.getOrDefault("seed", "1")),
+                values.get("json"));
+        }
+    }
+}
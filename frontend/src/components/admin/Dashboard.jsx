@@ -1,11 +1,17 @@
 import React, { useState, useEffect } from 'react';
 import { studentService } from '../../services/studentService';
 import { routineService } from '../../services/routineService';
+import { analyticsService } from '../../services/analyticsService';
+import { eventService } from '../../services/eventService';
 import toast from 'react-hot-toast';
 
 const AdminDashboard = () => {
   const [students, setStudents] = useState([]);
   const [routines, setRoutines] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [routineCount, setRoutineCount] = useState(0);
+  const [stale, setStale] = useState(false);
   const [selectedDate, setSelectedDate] = useState(new Date().toISOString().split('T')[0]);
   const [selectedRoutine, setSelectedRoutine] = useState(null);
   const [showModal, setShowModal] = useState(false);
@@ -14,9 +20,30 @@ const AdminDashboard = () => {
 
   useEffect(() => {
     loadStudents();
+    loadRoutineCount();
     loadRoutinesByDate();
+    setStale(false);
   }, [selectedDate]);
 
+  // Live changes keep the count current; the table is only flagged, so pages already loaded stay put
+  useEffect(() => eventService.subscribe({
+    onEvent: (name, change) => {
+      if (change.routineDate !== selectedDate) return;
+      if (name === 'routine.feedback') {
+        setRoutines(previous => previous.map(r => (
+          r.id === change.routineId ? { ...r, adminFeedback: change.adminFeedback } : r
+        )));
+        return;
+      }
+      loadRoutineCount();
+      setStale(true);
+    },
+    onReset: () => {
+      loadRoutineCount();
+      setStale(true);
+    },
+  }), [selectedDate]);
+
   const loadStudents = async () => {
     try {
       const data = await studentService.getAllStudents();
@@ -26,24 +53,47 @@ const AdminDashboard = () => {
     }
   };
 
-  const loadRoutinesByDate = async () => {
+  // The day's total comes from the cohort rollup, so it doesn't need every routine loaded
+  const loadRoutineCount = async () => {
     try {
-      const data = await routineService.getRoutinesByDate(selectedDate);
-      setRoutines(data);
+      const cohorts = await analyticsService.getCohorts({ from: selectedDate, to: selectedDate, bucket: 'DAY' });
+      setRoutineCount(cohorts.reduce((sum, cohort) => sum + cohort.routines, 0));
+    } catch (error) {
+      setRoutineCount(0);
+    }
+  };
+
+  // Routines are shown one page at a time; "Load more" appends the next page
+  const loadRoutinesByDate = async (cursor) => {
+    try {
+      const page = await routineService.getRoutinesByDate(selectedDate, cursor ? { cursor } : {});
+      setRoutines(previous => (cursor ? [...previous, ...page.items] : page.items));
+      setNextCursor(page.nextCursor);
     } catch (error) {
       toast.error('Failed to load routines');
     }
   };
 
+  const handleShowUpdates = async () => {
+    setStale(false);
+    await loadRoutinesByDate();
+  };
+
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    await loadRoutinesByDate(nextCursor);
+    setLoadingMore(false);
+  };
+
   const handleAddFeedback = async () => {
     if (!feedback.trim()) return;
     
     setSubmittingFeedback(true);
     try {
-      await routineService.addFeedback(selectedRoutine.id, feedback);
+      const updated = await routineService.addFeedback(selectedRoutine.id, feedback);
       toast.success('Feedback added successfully!');
       setFeedback('');
-      loadRoutinesByDate();
+      setRoutines(previous => previous.map(r => (r.id === updated.id ? updated : r)));
       setShowModal(false);
     } catch (error) {
       toast.error('Failed to add feedback');
@@ -64,12 +114,12 @@ const AdminDashboard = () => {
           </div>
           <div className="bg-green-50 p-4 rounded-lg">
             <h3 className="text-lg font-semibold text-green-900">Today's Routines</h3>
-            <p className="text-3xl font-bold text-green-600">{routines.length}</p>
+            <p className="text-3xl font-bold text-green-600">{routineCount}</p>
           </div>
           <div className="bg-yellow-50 p-4 rounded-lg">
             <h3 className="text-lg font-semibold text-yellow-900">Completion Rate</h3>
             <p className="text-3xl font-bold text-yellow-600">
-              {students.length > 0 ? Math.round((routines.length / students.length) * 100) : 0}%
+              {students.length > 0 ? Math.round((routineCount / students.length) * 100) : 0}%
             </p>
           </div>
         </div>
@@ -88,64 +138,79 @@ const AdminDashboard = () => {
       </div>
 
       <div className="bg-white shadow rounded-lg p-6">
-        <h3 className="text-xl font-semibold text-gray-900 mb-4">Students Overview</h3>
-        <div className="overflow-x-auto">
-          <table className="min-w-full divide-y divide-gray-200">
-            <thead className="bg-gray-50">
-              <tr>
-                <th className="px-6 py-3 text-left text-xs font-medium text-gray-500 uppercase tracking-wider">
-                  Student Name
-                </th>
-                <th className="px-6 py-3 text-left text-xs font-medium text-gray-500 uppercase tracking-wider">
-                  Class
-                </th>
-                <th className="px-6 py-3 text-left text-xs font-medium text-gray-500 uppercase tracking-wider">
-                  Parent
-                </th>
-                <th className="px-6 py-3 text-left text-xs font-medium text-gray-500 uppercase tracking-wider">
-                  Routine Status
-                </th>
-              </tr>
-            </thead>
-            <tbody className="bg-white divide-y divide-gray-200">
-              {students.map((student) => {
-                const hasRoutine = routines.some(r => r.student.id === student.id);
-                return (
-                  <tr key={student.id}>
+        <div className="flex justify-between items-center mb-4">
+          <h3 className="text-xl font-semibold text-gray-900">Routines Submitted</h3>
+          {stale && (
+            <button
+              onClick={handleShowUpdates}
+              className="px-3 py-1 text-sm font-medium rounded-md bg-indigo-50 text-indigo-700 hover:bg-indigo-100"
+            >
+              New updates - refresh
+            </button>
+          )}
+        </div>
+        {routines.length === 0 ? (
+          <p className="text-gray-500">No routines recorded for this date.</p>
+        ) : (
+          <div className="overflow-x-auto">
+            <table className="min-w-full divide-y divide-gray-200">
+              <thead className="bg-gray-50">
+                <tr>
+                  <th className="px-6 py-3 text-left text-xs font-medium text-gray-500 uppercase tracking-wider">
+                    Student Name
+                  </th>
+                  <th className="px-6 py-3 text-left text-xs font-medium text-gray-500 uppercase tracking-wider">
+                    Class
+                  </th>
+                  <th className="px-6 py-3 text-left text-xs font-medium text-gray-500 uppercase tracking-wider">
+                    Behavior
+                  </th>
+                  <th className="px-6 py-3 text-left text-xs font-medium text-gray-500 uppercase tracking-wider">
+                    Routine
+                  </th>
+                </tr>
+              </thead>
+              <tbody className="bg-white divide-y divide-gray-200">
+                {routines.map((routine) => (
+                  <tr key={routine.id}>
                     <td className="px-6 py-4 whitespace-nowrap text-sm font-medium text-gray-900">
-                      {student.name}
+                      {routine.studentName}
                     </td>
                     <td className="px-6 py-4 whitespace-nowrap text-sm text-gray-500">
-                      {student.classGrade}
+                      {routine.classGrade}
                     </td>
                     <td className="px-6 py-4 whitespace-nowrap text-sm text-gray-500">
-                      {student.parent?.username}
+                      {routine.behaviorAtHome || 'N/A'}
                     </td>
                     <td className="px-6 py-4 whitespace-nowrap">
-                      {hasRoutine ? (
-                        <button
-                          onClick={() => {
-                            const routine = routines.find(r => r.student.id === student.id);
-                            setSelectedRoutine(routine);
-                            setFeedback(routine.adminFeedback || '');
-                            setShowModal(true);
-                          }}
-                          className="px-2 py-1 text-xs font-semibold rounded-full bg-green-100 text-green-800 hover:bg-green-200 cursor-pointer"
-                        >
-                          {routines.find(r => r.student.id === student.id)?.adminFeedback ? 'View & Edit' : 'View Routine'}
-                        </button>
-                      ) : (
-                        <span className="px-2 inline-flex text-xs leading-5 font-semibold rounded-full bg-red-100 text-red-800">
-                          Pending
-                        </span>
-                      )}
+                      <button
+                        onClick={() => {
+                          setSelectedRoutine(routine);
+                          setFeedback(routine.adminFeedback || '');
+                          setShowModal(true);
+                        }}
+                        className="px-2 py-1 text-xs font-semibold rounded-full bg-green-100 text-green-800 hover:bg-green-200 cursor-pointer"
+                      >
+                        {routine.adminFeedback ? 'View & Edit' : 'View Routine'}
+                      </button>
                     </td>
                   </tr>
-                );
-              })}
-            </tbody>
-          </table>
-        </div>
+                ))}
+              </tbody>
+            </table>
+          </div>
+        )}
+        {nextCursor && (
+          <div className="flex justify-center mt-4">
+            <button
+              onClick={handleLoadMore}
+              disabled={loadingMore}
+              className="px-4 py-2 border border-gray-300 rounded-md text-sm font-medium text-gray-700 hover:bg-gray-50 disabled:opacity-50"
+            >
+              {loadingMore ? 'Loading...' : 'Load more'}
+            </button>
+          </div>
+        )}
       </div>
 
       {/* Routine Modal */}
@@ -154,7 +219,7 @@ const AdminDashboard = () => {
           <div className="bg-white rounded-lg p-6 max-w-2xl w-full mx-4 max-h-96 overflow-y-auto">
             <div className="flex justify-between items-center mb-4">
               <h3 className="text-xl font-semibold text-gray-900">
-                {selectedRoutine.student.name}'s Routine - {new Date(selectedRoutine.routineDate).toLocaleDateString()}
+                {selectedRoutine.studentName}'s Routine - {new Date(selectedRoutine.routineDate).toLocaleDateString()}
               </h3>
               <button
                 onClick={() => setShowModal(false)}
@@ -222,7 +287,7 @@ const AdminDashboard = () => {
                 <strong>Admin Feedback:</strong>
                 <p className="mt-1">{selectedRoutine.adminFeedback}</p>
                 <p className="text-xs text-gray-500 mt-1">
-                  By {selectedRoutine.feedbackBy?.username} on {new Date(selectedRoutine.feedbackDate).toLocaleDateString()}
+                  By {selectedRoutine.feedbackByUsername} on {new Date(selectedRoutine.feedbackDate).toLocaleDateString()}
                 </p>
               </div>
             )}
@@ -1,20 +1,33 @@
-import React, { useState } from 'react';
+import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useAuth } from '../../context/AuthContext';
+import { authService } from '../../services/authService';
 import toast from 'react-hot-toast';
 
 const Login = () => {
-  const [formData, setFormData] = useState({ username: '', password: '' });
+  const [formData, setFormData] = useState({ username: '', password: '', school: '' });
+  const [schools, setSchools] = useState([]);
   const [loading, setLoading] = useState(false);
   const { login } = useAuth();
   const navigate = useNavigate();
 
+  useEffect(() => {
+    authService.getSchools()
+      .then(({ default: defaultSchool, schools }) => {
+        setSchools(schools);
+        const last = authService.getSchool();
+        setFormData((current) => ({ ...current, school: schools.includes(last) ? last : defaultSchool }));
+      })
+      // Without the list the picker stays hidden and login goes to the default school
+      .catch(() => setSchools([]));
+  }, []);
+
   const handleSubmit = async (e) => {
     e.preventDefault();
     setLoading(true);
     
     try {
-      await login(formData.username, formData.password);
+      await login(formData.username, formData.password, formData.school || undefined);
       toast.success('Login successful!');
       navigate('/dashboard');
     } catch (error) {
@@ -36,6 +49,21 @@ const Login = () => {
           </p>
         </div>
         <form className="mt-8 space-y-6" onSubmit={handleSubmit}>
+          {schools.length > 1 && (
+            <div>
+              <label htmlFor="school" className="block text-sm font-medium text-gray-700">School</label>
+              <select
+                id="school"
+                className="mt-1 block w-full px-3 py-2 border border-gray-300 bg-white rounded-md text-gray-900 focus:outline-none focus:ring-indigo-500 focus:border-indigo-500 sm:text-sm"
+                value={formData.school}
+                onChange={(e) => setFormData({ ...formData, school: e.target.value })}
+              >
+                {schools.map((school) => (
+                  <option key={school} value={school}>{school}</option>
+                ))}
+              </select>
+            </div>
+          )}
           <div className="rounded-md shadow-sm -space-y-px">
             <div>
               <input
@@ -1,52 +1,51 @@
 import React, { useState, useEffect } from 'react';
 import { studentService } from '../../services/studentService';
-import { routineService } from '../../services/routineService';
+import { eventService } from '../../services/eventService';
 import RoutineForm from './RoutineForm';
 import toast from 'react-hot-toast';
 
 const ParentDashboard = () => {
   const [students, setStudents] = useState([]);
-  const [selectedStudent, setSelectedStudent] = useState(null);
-  const [routines, setRoutines] = useState([]);
+  const [selectedStudentId, setSelectedStudentId] = useState(null);
   const [showForm, setShowForm] = useState(false);
   const [selectedRoutine, setSelectedRoutine] = useState(null);
   const [showModal, setShowModal] = useState(false);
 
+  const selectedStudent = students.find(s => s.id === selectedStudentId) || null;
+  const routines = selectedStudent ? selectedStudent.latestRoutines : [];
+
   useEffect(() => {
-    loadStudents();
+    loadFeed();
   }, []);
 
-  useEffect(() => {
-    if (selectedStudent) {
-      loadRoutines();
-    }
-  }, [selectedStudent]);
+  // The stream only carries this parent's children, so any event means the feed changed
+  useEffect(() => eventService.subscribe({
+    onEvent: (name) => {
+      if (name === 'routine.feedback') {
+        toast.success('New feedback from school');
+      }
+      loadFeed();
+    },
+    onReset: () => loadFeed(),
+  }), []);
 
-  const loadStudents = async () => {
+  // One request for every child, instead of the roster plus a history request per child
+  const loadFeed = async () => {
     try {
-      const data = await studentService.getAllStudents();
+      const data = await studentService.getHomeFeed(10);
       setStudents(data);
-      if (data.length > 0) {
-        setSelectedStudent(data[0]);
-      }
+      // Functional update, since live events call this from a closure made at mount
+      setSelectedStudentId(current => (
+        data.length > 0 && !data.some(s => s.id === current) ? data[0].id : current
+      ));
     } catch (error) {
       toast.error('Failed to load students');
     }
   };
 
-  const loadRoutines = async () => {
-    if (!selectedStudent) return;
-    try {
-      const data = await routineService.getRoutinesByStudent(selectedStudent.id);
-      setRoutines(data);
-    } catch (error) {
-      toast.error('Failed to load routines');
-    }
-  };
-
   const handleRoutineSaved = () => {
     setShowForm(false);
-    loadRoutines();
+    loadFeed();
     toast.success('Routine saved successfully!');
   };
 
@@ -70,10 +69,7 @@ const ParentDashboard = () => {
             </label>
             <select
               value={selectedStudent?.id || ''}
-              onChange={(e) => {
-                const student = students.find(s => s.id === parseInt(e.target.value));
-                setSelectedStudent(student);
-              }}
+              onChange={(e) => setSelectedStudentId(parseInt(e.target.value))}
               className="border border-gray-300 rounded-md px-3 py-2"
             >
               {students.map(student => (
@@ -88,9 +84,23 @@ const ParentDashboard = () => {
 
       {selectedStudent && (
         <div className="bg-white shadow rounded-lg p-6">
-          <h3 className="text-xl font-semibold text-gray-900 mb-4">
-            {selectedStudent.name}'s Routine History
-          </h3>
+          <div className="flex justify-between items-center mb-4">
+            <h3 className="text-xl font-semibold text-gray-900">
+              {selectedStudent.name}'s Routine History
+            </h3>
+            <div className="flex items-center space-x-2 text-xs">
+              <span className={`px-2 py-1 rounded-full ${
+                selectedStudent.loggedToday ? 'bg-green-100 text-green-800' : 'bg-yellow-100 text-yellow-800'
+              }`}>
+                {selectedStudent.loggedToday ? 'Logged today' : 'Not logged today'}
+              </span>
+              {selectedStudent.pendingFeedback > 0 && (
+                <span className="px-2 py-1 rounded-full bg-blue-100 text-blue-800">
+                  {selectedStudent.pendingFeedback} awaiting feedback
+                </span>
+              )}
+            </div>
+          </div>
           
           {routines.length === 0 ? (
             <p className="text-gray-500">No routines recorded yet.</p>
@@ -164,7 +174,7 @@ const ParentDashboard = () => {
           <div className="bg-white rounded-lg p-6 max-w-2xl w-full mx-4 max-h-96 overflow-y-auto">
             <div className="flex justify-between items-center mb-4">
               <h3 className="text-xl font-semibold text-gray-900">
-                {selectedRoutine.student.name}'s Routine - {new Date(selectedRoutine.routineDate).toLocaleDateString()}
+                {selectedRoutine.studentName}'s Routine - {new Date(selectedRoutine.routineDate).toLocaleDateString()}
               </h3>
               <button
                 onClick={() => setShowModal(false)}
@@ -232,7 +242,7 @@ const ParentDashboard = () => {
                 <strong>Admin Feedback:</strong>
                 <p className="mt-1">{selectedRoutine.adminFeedback}</p>
                 <p className="text-xs text-gray-500 mt-1">
-                  By {selectedRoutine.feedbackBy?.username} on {new Date(selectedRoutine.feedbackDate).toLocaleDateString()}
+                  By {selectedRoutine.feedbackByUsername} on {new Date(selectedRoutine.feedbackDate).toLocaleDateString()}
                 </p>
               </div>
             )}
@@ -21,8 +21,8 @@ export const AuthProvider = ({ children }) => {
     setLoading(false);
   }, []);
 
-  const login = async (username, password) => {
-    const { user } = await authService.login(username, password);
+  const login = async (username, password, school) => {
+    const { user } = await authService.login(username, password, school);
     setUser(user);
     return user;
   };
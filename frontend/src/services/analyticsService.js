@@ -0,0 +1,8 @@
+import api from './api';
+
+export const analyticsService = {
+  getCohorts: async (params) => {
+    const response = await api.get('/analytics/cohorts', { params });
+    return response.data;
+  }
+};
@@ -2,6 +2,15 @@ import axios from 'axios';
 
 const API_BASE_URL = '/api';
 
+// The school the user signed in to. Calls without an access token (login, refresh, logout) are
+// routed by this header; authenticated calls are routed by the token, so sending it always is harmless
+export const TENANT_HEADER = 'X-Tenant-ID';
+
+const tenantHeaders = () => {
+  const tenant = localStorage.getItem('tenant');
+  return tenant ? { [TENANT_HEADER]: tenant } : {};
+};
+
 const api = axios.create({
   baseURL: API_BASE_URL,
   headers: {
@@ -15,18 +24,58 @@ api.interceptors.request.use(
     if (token) {
       config.headers.Authorization = `Bearer ${token}`;
     }
+    // Login and register set the header themselves for the school picked on the form
+    const tenant = localStorage.getItem('tenant');
+    if (tenant && !config.headers[TENANT_HEADER]) {
+      config.headers[TENANT_HEADER] = tenant;
+    }
     return config;
   },
   (error) => Promise.reject(error)
 );
 
+// One refresh at a time; requests that fail meanwhile wait for it instead of rotating the token again
+let refreshing = null;
+
+const refreshAccessToken = async () => {
+  const refreshToken = localStorage.getItem('refreshToken');
+  if (!refreshToken) {
+    throw new Error('No refresh token');
+  }
+  // Refresh tokens are stored per school, so this must reach the one that issued it
+  const response = await axios.post(`${API_BASE_URL}/auth/refresh`, { refreshToken }, { headers: tenantHeaders() });
+  localStorage.setItem('token', response.data.token);
+  localStorage.setItem('refreshToken', response.data.refreshToken);
+  return response.data.token;
+};
+
+// Resolves to the new access token; on failure the session is over and the user is sent to login
+export const refreshSession = async () => {
+  try {
+    refreshing = refreshing || refreshAccessToken().finally(() => { refreshing = null; });
+    return await refreshing;
+  } catch (refreshError) {
+    localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
+    localStorage.removeItem('user');
+    window.location.href = '/login';
+    throw refreshError;
+  }
+};
+
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
-    if (error.response?.status === 401) {
-      localStorage.removeItem('token');
-      localStorage.removeItem('user');
-      window.location.href = '/login';
+  async (error) => {
+    const original = error.config;
+    if (error.response?.status === 401 && original && !original._retried) {
+      original._retried = true;
+      try {
+        const token = await refreshSession();
+        original.headers.Authorization = `Bearer ${token}`;
+        return api(original);
+      } catch (refreshError) {
+        // Fall through with the original error while the page navigates to login
+      }
     }
     return Promise.reject(error);
   }
@@ -1,21 +1,40 @@
-import api from './api';
+import api, { TENANT_HEADER } from './api';
 
 export const authService = {
-  login: async (username, password) => {
-    const response = await api.post('/auth/login', { username, password });
-    const { token, user } = response.data;
+  // school is optional; without it the server's default school is used
+  login: async (username, password, school) => {
+    const headers = school ? { [TENANT_HEADER]: school } : {};
+    const response = await api.post('/auth/login', { username, password }, { headers });
+    const { token, refreshToken, tenant, user } = response.data;
     localStorage.setItem('token', token);
+    localStorage.setItem('refreshToken', refreshToken);
+    localStorage.setItem('tenant', tenant);
     localStorage.setItem('user', JSON.stringify(user));
     return { token, user };
   },
 
-  register: async (userData) => {
-    const response = await api.post('/auth/register', userData);
+  register: async (userData, school) => {
+    const headers = school ? { [TENANT_HEADER]: school } : {};
+    const response = await api.post('/auth/register', userData, { headers });
     return response.data;
   },
 
+  getSchools: async () => {
+    const response = await api.get('/auth/schools');
+    return response.data;
+  },
+
+  // Kept across logouts so the login form starts on the school last used
+  getSchool: () => localStorage.getItem('tenant'),
+
   logout: () => {
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (refreshToken) {
+      // Best effort; the session ends locally either way
+      api.post('/auth/logout', { refreshToken }).catch(() => {});
+    }
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('user');
   },
 
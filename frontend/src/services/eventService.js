@@ -0,0 +1,87 @@
+import { refreshSession } from './api';
+
+const STREAM_URL = '/api/events/stream';
+const MIN_RETRY_MS = 1000;
+const MAX_RETRY_MS = 30000;
+
+// Splits one text/event-stream frame into its id, event name and data; comment-only frames have neither
+const parseFrame = (frame) => {
+  let id = null;
+  let name = 'message';
+  const data = [];
+  frame.split(/\r?\n/).forEach((line) => {
+    if (!line || line.startsWith(':')) return;
+    const colon = line.indexOf(':');
+    const field = colon === -1 ? line : line.slice(0, colon);
+    const value = colon === -1 ? '' : line.slice(colon + 1).replace(/^ /, '');
+    if (field === 'id') id = value;
+    else if (field === 'event') name = value;
+    else if (field === 'data') data.push(value);
+  });
+  return data.length > 0 || name !== 'message' ? { id, name, data: data.join('\n') } : null;
+};
+
+export const eventService = {
+  // Follows the live routine events until the returned function is called. EventSource cannot send the
+  // Authorization header, so this reads the stream with fetch. A dropped stream reconnects with
+  // Last-Event-ID to replay what was missed; `reset` means the gap is too old and onReset should reload.
+  subscribe: ({ onEvent, onReset }) => {
+    const controller = new AbortController();
+    let lastEventId = null;
+    let retryMs = MIN_RETRY_MS;
+
+    const dispatch = (event) => {
+      if (event.id) lastEventId = event.id;
+      if (event.name === 'reset') {
+        onReset?.();
+      } else if (event.name.startsWith('routine.')) {
+        onEvent?.(event.name, JSON.parse(event.data));
+      }
+    };
+
+    const read = async (response) => {
+      const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+      let buffer = '';
+      for (;;) {
+        const { value, done } = await reader.read();
+        if (done) return;
+        buffer += value;
+        const frames = buffer.split(/\r?\n\r?\n/);
+        buffer = frames.pop();
+        frames.map(parseFrame).filter(Boolean).forEach(dispatch);
+        retryMs = MIN_RETRY_MS;
+      }
+    };
+
+    const connect = async () => {
+      while (!controller.signal.aborted) {
+        let waitMs = retryMs;
+        try {
+          const headers = { Accept: 'text/event-stream' };
+          const token = localStorage.getItem('token');
+          if (token) headers.Authorization = `Bearer ${token}`;
+          if (lastEventId) headers['Last-Event-ID'] = lastEventId;
+          const response = await fetch(STREAM_URL, { headers, signal: controller.signal });
+          if (response.status === 401) {
+            await refreshSession();
+            continue;
+          }
+          if (response.ok) {
+            await read(response);
+          } else if (response.status === 503) {
+            // The server is at its subscriber limit and says when to come back
+            waitMs = (Number(response.headers.get('Retry-After')) || 30) * 1000;
+          }
+        } catch (error) {
+          // Aborted by the caller, or the session could not be refreshed
+          if (controller.signal.aborted || !localStorage.getItem('token')) return;
+        }
+        await new Promise((resolve) => setTimeout(resolve, waitMs));
+        retryMs = Math.min(retryMs * 2, MAX_RETRY_MS);
+      }
+    };
+
+    connect();
+    return () => controller.abort();
+  },
+};
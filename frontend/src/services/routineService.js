@@ -1,13 +1,13 @@
 import api from './api';
 
 export const routineService = {
-  getRoutinesByStudent: async (studentId) => {
-    const response = await api.get(`/routines/student/${studentId}`);
+  getRoutinesByStudent: async (studentId, params = {}) => {
+    const response = await api.get(`/routines/student/${studentId}`, { params });
     return response.data;
   },
 
-  getRoutinesByDate: async (date) => {
-    const response = await api.get(`/routines/date/${date}`);
+  getRoutinesByDate: async (date, params = {}) => {
+    const response = await api.get(`/routines/date/${date}`, { params });
     return response.data;
   },
 
@@ -6,6 +6,12 @@ export const studentService = {
     return response.data;
   },
 
+  // The caller's children, each with today's status and their newest routines
+  getHomeFeed: async (routines) => {
+    const response = await api.get('/students/home', { params: { routines } });
+    return response.data;
+  },
+
   createStudent: async (studentData) => {
     const response = await api.post('/students', studentData);
     return response.data;